@@ -0,0 +1,107 @@
+package com.cardvault.config;
+
+import com.cardvault.util.CircuitBreaker;
+import com.cardvault.util.TokenBucket;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * HTTP client and worker pool used for calls to the Pokemon TCG API.
+ */
+@Configuration
+public class PokemonTcgClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient pokemonTcgHttpClient(
+            @Value("${pokemon.tcg.http.max-connections:50}") int maxConnections,
+            @Value("${pokemon.tcg.http.connect-timeout:PT3S}") Duration connectTimeout,
+            @Value("${pokemon.tcg.http.read-timeout:PT10S}") Duration readTimeout,
+            @Value("${pokemon.tcg.http.connection-request-timeout:PT2S}") Duration connectionRequestTimeout,
+            @Value("${pokemon.tcg.http.idle-timeout:PT30S}") Duration idleTimeout) {
+        // All traffic goes to a single host, so the per-route limit is the pool size
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(5))
+                        .build())
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .evictExpiredConnections()
+                .build();
+    }
+
+    @Bean
+    public RestTemplate pokemonTcgRestTemplate(CloseableHttpClient pokemonTcgHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(pokemonTcgHttpClient));
+    }
+
+    /**
+     * Client side limit for upstream calls, sized to stay within the API key's quota.
+     */
+    @Bean
+    public TokenBucket pokemonTcgRateLimiter(
+            @Value("${pokemon.tcg.rate-limit.requests-per-second:5}") double requestsPerSecond,
+            @Value("${pokemon.tcg.rate-limit.burst:10}") long burst) {
+        return new TokenBucket(burst, requestsPerSecond);
+    }
+
+    @Bean
+    public CircuitBreaker pokemonTcgCircuitBreaker(
+            @Value("${pokemon.tcg.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${pokemon.tcg.circuit-breaker.open-duration:PT30S}") Duration openDuration) {
+        return new CircuitBreaker(failureThreshold, openDuration);
+    }
+
+    /**
+     * Declaring our own executor switches off Spring Boot's default one, which MVC async
+     * request handling relies on, so it is registered here explicitly.
+     */
+    @Bean(name = "applicationTaskExecutor")
+    @Primary
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor pokemonTcgExecutor(
+            @Value("${pokemon.tcg.executor.core-size:8}") int coreSize,
+            @Value("${pokemon.tcg.executor.max-size:32}") int maxSize,
+            @Value("${pokemon.tcg.executor.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("pokemon-tcg-");
+        // Once the queue is full, fall back to running on the caller's thread rather than failing
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,8 +1,12 @@
 package com.cardvault.controller;
 
+import com.cardvault.dto.CardPageResponse;
+import com.cardvault.dto.CardQueryResponse;
 import com.cardvault.dto.CardRequest;
 import com.cardvault.dto.CardResponse;
+import com.cardvault.dto.CardSuggestionResponse;
 import com.cardvault.model.Card;
+import com.cardvault.service.CardFacetIndex;
 import com.cardvault.service.CardService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,7 +14,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -27,12 +33,9 @@ public class CardController {
     }
 
     @GetMapping
-    public ResponseEntity<List<CardResponse>> getAllCards() {
-        List<Card> cards = cardService.getAllCards();
-        List<CardResponse> response = cards.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<CardPageResponse> getAllCards(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(convertToPageResponse(cardService.getCards(cursor, size)));
     }
 
     @GetMapping("/{id}")
@@ -50,30 +53,54 @@ public class CardController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<CardResponse>> searchCards(@RequestParam String query) {
-        List<Card> cards = cardService.searchCards(query);
-        List<CardResponse> response = cards.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<CardPageResponse> searchCards(@RequestParam String query,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "50") int size,
+                                                        @RequestParam(defaultValue = "false") boolean fuzzy) {
+        return ResponseEntity.ok(convertToPageResponse(cardService.searchCards(query, cursor, size, fuzzy)));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<CardSuggestionResponse>> suggestCards(@RequestParam String prefix,
+                                                                     @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(cardService.suggestCardNames(prefix, limit));
+    }
+
+    @GetMapping("/query")
+    public ResponseEntity<CardQueryResponse> queryCards(@RequestParam(required = false) List<String> set,
+                                                        @RequestParam(required = false) List<String> rarity,
+                                                        @RequestParam(required = false) List<String> type,
+                                                        @RequestParam(required = false) List<String> supertype,
+                                                        @RequestParam(defaultValue = "0") int page,
+                                                        @RequestParam(defaultValue = "100") int size) {
+        Map<String, List<String>> filters = new HashMap<>();
+        if (set != null) {
+            filters.put(CardFacetIndex.SET, set);
+        }
+        if (rarity != null) {
+            filters.put(CardFacetIndex.RARITY, rarity);
+        }
+        if (type != null) {
+            filters.put(CardFacetIndex.TYPE, type);
+        }
+        if (supertype != null) {
+            filters.put(CardFacetIndex.SUPERTYPE, supertype);
+        }
+        return ResponseEntity.ok(cardService.queryCards(filters, page, size));
     }
 
     @GetMapping("/set/{setName}")
-    public ResponseEntity<List<CardResponse>> getCardsBySet(@PathVariable String setName) {
-        List<Card> cards = cardService.getCardsBySetOrdered(setName);
-        List<CardResponse> response = cards.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<CardPageResponse> getCardsBySet(@PathVariable String setName,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(convertToPageResponse(cardService.getCardsBySet(setName, cursor, size)));
     }
 
     @GetMapping("/rarity/{rarity}")
-    public ResponseEntity<List<CardResponse>> getCardsByRarity(@PathVariable String rarity) {
-        List<Card> cards = cardService.getCardsByRarity(rarity);
-        List<CardResponse> response = cards.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<CardPageResponse> getCardsByRarity(@PathVariable String rarity,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(convertToPageResponse(cardService.getCardsByRarity(rarity, cursor, size)));
     }
 
     @PostMapping
@@ -96,6 +123,15 @@ public class CardController {
         return ResponseEntity.noContent().build();
     }
 
+    private CardPageResponse convertToPageResponse(CardService.CardPage page) {
+        CardPageResponse response = new CardPageResponse();
+        response.setData(page.cards().stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList()));
+        response.setNextCursor(page.nextCursor());
+        return response;
+    }
+
     private CardResponse convertToResponse(Card card) {
         CardResponse response = new CardResponse();
         response.setId(card.getId());
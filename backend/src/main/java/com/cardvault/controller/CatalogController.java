@@ -0,0 +1,38 @@
+package com.cardvault.controller;
+
+import com.cardvault.service.CatalogSyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/catalog")
+@CrossOrigin(origins = "http://localhost:3000")
+public class CatalogController {
+
+    private final CatalogSyncService catalogSyncService;
+
+    @Autowired
+    public CatalogController(CatalogSyncService catalogSyncService) {
+        this.catalogSyncService = catalogSyncService;
+    }
+
+    @GetMapping("/sync")
+    public ResponseEntity<Map<String, Object>> getSyncStatus() {
+        return ResponseEntity.ok(catalogSyncService.getStatus());
+    }
+
+    @PostMapping("/sync")
+    public ResponseEntity<Map<String, Object>> startSync(@RequestParam(defaultValue = "full") String mode) {
+        boolean started = switch (mode.toLowerCase()) {
+            case "full" -> catalogSyncService.startFullSync();
+            case "incremental" -> catalogSyncService.startIncrementalSync();
+            default -> throw new RuntimeException("Unknown sync mode: " + mode);
+        };
+        HttpStatus status = started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(catalogSyncService.getStatus());
+    }
+}
@@ -1,19 +1,42 @@
 package com.cardvault.controller;
 
 import com.cardvault.dto.AddToCollectionRequest;
+import com.cardvault.dto.CollectionImportResponse;
+import com.cardvault.dto.CollectionPageResponse;
 import com.cardvault.dto.UserCardDto;
+import com.cardvault.dto.UserCardView;
+import com.cardvault.exception.TooManyRequestsException;
+import com.cardvault.model.Card;
 import com.cardvault.model.UserCard;
+import com.cardvault.repository.CollectionFilter;
 import com.cardvault.repository.UserRepository;
+import com.cardvault.service.CollectionExportService;
+import com.cardvault.service.CollectionImportService;
 import com.cardvault.service.CollectionService;
+import com.cardvault.service.CompactCardCatalog;
+import com.cardvault.service.UserCardService;
+import com.cardvault.util.AsyncRequestCompletion;
+import com.cardvault.util.JsonArrayStream;
+import com.cardvault.util.StreamingTimeout;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -28,15 +51,102 @@ public class CollectionController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CompactCardCatalog compactCardCatalog;
+
+    @Autowired
+    private UserCardService userCardService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CollectionExportService collectionExportService;
+
+    @Autowired
+    private CollectionImportService collectionImportService;
+
+    @Value("${cardvault.collection.stream-timeout:PT15M}")
+    private Duration streamTimeout;
+
+    @Value("${cardvault.collection.export-timeout:PT30M}")
+    private Duration exportTimeout;
+
+    /**
+     * The whole collection as a JSON array, streamed from the database as it is written.
+     */
     @GetMapping
-    public ResponseEntity<List<UserCardDto>> getUserCollection() {
+    public ResponseEntity<StreamingResponseBody> getUserCollection() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         UUID userId = getUserIdFromAuth(auth);
-        List<UserCard> collection = collectionService.getUserCollection(userId);
-        List<UserCardDto> dtos = collection.stream()
-                .map(UserCardDto::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+        StreamingTimeout.apply(streamTimeout);
+        StreamingResponseBody body = out -> {
+            JsonArrayStream json = new JsonArrayStream(objectMapper, UserCardDto.class, out);
+            userCardService.streamCollection(userId, (view, card) -> json.write(UserCardDto.fromView(view, card)));
+            json.finish();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Download the whole collection as a gzipped NDJSON (one UserCardDto per line) or CSV file.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCollection(@RequestParam(defaultValue = "ndjson") String format) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        UUID userId = getUserIdFromAuth(auth);
+        CollectionExportService.Format exportFormat = CollectionExportService.Format.fromParam(format);
+        CollectionExportService.ExportSlot slot = collectionExportService.tryStartExport()
+                .orElseThrow(() -> new TooManyRequestsException(
+                        "Too many collection exports are running, try again shortly", Duration.ofSeconds(30)));
+        // Given back when the body ends, or when the request completes if the body never ran
+        AsyncRequestCompletion.register(CollectionExportService.class.getName(), slot::close);
+        StreamingTimeout.apply(exportTimeout);
+        StreamingResponseBody body = out -> {
+            try (slot) {
+                collectionExportService.export(userId, exportFormat, out);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("cardvault-collection." + exportFormat.getExtension() + ".gz")
+                        .build().toString())
+                .body(body);
+    }
+
+    /**
+     * Add many cards at once from a CSV (the columns of the CSV export) or JSON/NDJSON request body,
+     * optionally gzipped.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<CollectionImportResponse> importCollection(@RequestParam(defaultValue = "csv") String format,
+                                                                     InputStream body) throws IOException {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        UUID userId = getUserIdFromAuth(auth);
+        CollectionImportService.Format importFormat = CollectionImportService.Format.fromParam(format);
+        return ResponseEntity.ok(collectionImportService.importCollection(userId, importFormat, body));
+    }
+
+    /**
+     * The collection one bounded page at a time. Sort is one of value, name, set, acquired or created.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CollectionPageResponse<UserCardDto>> getUserCollectionPage(
+            @RequestParam(defaultValue = "created") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String rarity,
+            @RequestParam(required = false) String set,
+            @RequestParam(required = false) String condition) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        UUID userId = getUserIdFromAuth(auth);
+        UserCardService.CollectionPage page = userCardService.getCollectionPage(
+                userId, sort, new CollectionFilter(rarity, set, condition), cursor, size);
+        CollectionPageResponse<UserCardDto> response = new CollectionPageResponse<>();
+        response.setData(toDtos(page.rows()));
+        response.setNextCursor(page.nextCursor());
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/{id}")
@@ -44,7 +154,7 @@ public class CollectionController {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         UUID userId = getUserIdFromAuth(auth);
         return collectionService.getUserCardById(userId, id)
-                .map(UserCardDto::fromEntity)
+                .map(this::toDto)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -54,7 +164,7 @@ public class CollectionController {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         UUID userId = getUserIdFromAuth(auth);
         UserCard userCard = collectionService.addToCollection(userId, request);
-        UserCardDto dto = UserCardDto.fromEntity(userCard);
+        UserCardDto dto = toDto(userCard);
         return ResponseEntity.status(HttpStatus.CREATED).body(dto);
     }
 
@@ -65,7 +175,7 @@ public class CollectionController {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         UUID userId = getUserIdFromAuth(auth);
         UserCard userCard = collectionService.updateUserCard(userId, id, request);
-        UserCardDto dto = UserCardDto.fromEntity(userCard);
+        UserCardDto dto = toDto(userCard);
         return ResponseEntity.ok(dto);
     }
 
@@ -77,6 +187,17 @@ public class CollectionController {
         return ResponseEntity.noContent().build();
     }
 
+    private List<UserCardDto> toDtos(List<UserCardView> views) {
+        Map<UUID, Card> cards = compactCardCatalog.findAllById(views.stream().map(UserCardView::cardId).toList());
+        return views.stream()
+                .map(view -> UserCardDto.fromView(view, cards.get(view.cardId())))
+                .collect(Collectors.toList());
+    }
+
+    private UserCardDto toDto(UserCard userCard) {
+        return UserCardDto.fromEntity(userCard, compactCardCatalog.resolve(userCard.getCard()));
+    }
+
     private UUID getUserIdFromAuth(Authentication auth) {
         String username = auth.getName();
         return userRepository.findByUsername(username)
@@ -2,70 +2,112 @@ package com.cardvault.controller;
 
 import com.cardvault.dto.PokemonCardDto;
 import com.cardvault.dto.PokemonCardResponse;
+import com.cardvault.dto.PokemonSetDto;
+import com.cardvault.dto.PokemonSetResponse;
+import com.cardvault.service.CardCatalogService;
+import com.cardvault.service.CatalogMirrorService;
+import com.cardvault.service.PokemonTcgCache;
 import com.cardvault.service.PokemonTcgService;
+import com.cardvault.service.SetIndexService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/pokemon")
 @CrossOrigin(origins = "http://localhost:3000")
 public class PokemonCardController {
 
+    @Autowired
+    private CatalogMirrorService catalogMirrorService;
+
+    @Autowired
+    private PokemonTcgCache pokemonTcgCache;
+
+    @Autowired
+    private CardCatalogService cardCatalogService;
+
     @Autowired
     private PokemonTcgService pokemonTcgService;
 
+    @Autowired
+    private SetIndexService setIndexService;
+
     @GetMapping("/cards")
-    public ResponseEntity<PokemonCardResponse> searchCards(
+    public CompletableFuture<ResponseEntity<PokemonCardResponse>> searchCards(
             @RequestParam(required = false) String q,
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "20") int pageSize) {
-        PokemonCardResponse response = pokemonTcgService.searchCards(q, page, pageSize);
-        return ResponseEntity.ok(response);
+        return catalogMirrorService.searchCards(q, page, pageSize)
+                .thenApply(ResponseEntity::ok);
     }
 
     @GetMapping("/cards/{id}")
-    public ResponseEntity<PokemonCardDto> getCardById(@PathVariable String id) {
-        PokemonCardDto card = pokemonTcgService.getCardById(id);
-        if (card != null) {
-            return ResponseEntity.ok(card);
-        }
-        return ResponseEntity.notFound().build();
+    public CompletableFuture<ResponseEntity<PokemonCardDto>> getCardById(@PathVariable String id) {
+        return catalogMirrorService.getCardById(id)
+                .thenApply(card -> card != null
+                        ? ResponseEntity.ok(card)
+                        : ResponseEntity.notFound().build());
     }
 
     @GetMapping("/cards/search/name")
-    public ResponseEntity<PokemonCardResponse> searchByName(
+    public CompletableFuture<ResponseEntity<PokemonCardResponse>> searchByName(
             @RequestParam String name,
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "20") int pageSize) {
-        PokemonCardResponse response = pokemonTcgService.searchCardsByName(name, page, pageSize);
-        return ResponseEntity.ok(response);
+        return catalogMirrorService.searchCardsByName(name, page, pageSize)
+                .thenApply(ResponseEntity::ok);
     }
 
     @GetMapping("/cards/set/{setId}")
-    public ResponseEntity<PokemonCardResponse> getCardsBySet(
+    public CompletableFuture<ResponseEntity<PokemonCardResponse>> getCardsBySet(
             @PathVariable String setId,
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "20") int pageSize) {
-        PokemonCardResponse response = pokemonTcgService.getCardsBySet(setId, page, pageSize);
-        return ResponseEntity.ok(response);
+        return catalogMirrorService.getCardsBySet(setId, page, pageSize)
+                .thenApply(ResponseEntity::ok);
     }
 
     @GetMapping("/cards/type/{type}")
-    public ResponseEntity<PokemonCardResponse> getCardsByType(
+    public CompletableFuture<ResponseEntity<PokemonCardResponse>> getCardsByType(
             @PathVariable String type,
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "20") int pageSize) {
-        PokemonCardResponse response = pokemonTcgService.getCardsByType(type, page, pageSize);
-        return ResponseEntity.ok(response);
+        return catalogMirrorService.getCardsByType(type, page, pageSize)
+                .thenApply(ResponseEntity::ok);
     }
 
     @GetMapping("/cards/rarity/{rarity}")
-    public ResponseEntity<PokemonCardResponse> getCardsByRarity(
+    public CompletableFuture<ResponseEntity<PokemonCardResponse>> getCardsByRarity(
             @PathVariable String rarity,
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "20") int pageSize) {
-        PokemonCardResponse response = pokemonTcgService.getCardsByRarity(rarity, page, pageSize);
-        return ResponseEntity.ok(response);
+        return catalogMirrorService.getCardsByRarity(rarity, page, pageSize)
+                .thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/sets")
+    public ResponseEntity<PokemonSetResponse> getSets() {
+        return ResponseEntity.ok(setIndexService.getSetResponse());
+    }
+
+    @GetMapping("/sets/{id}")
+    public ResponseEntity<PokemonSetDto> getSetById(@PathVariable String id) {
+        return setIndexService.getSet(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cache", pokemonTcgCache.getStats());
+        stats.put("catalog", cardCatalogService.getStats());
+        stats.put("upstream", pokemonTcgService.getUpstreamStats());
+        return ResponseEntity.ok(stats);
     }
 }
@@ -1,21 +1,33 @@
 package com.cardvault.controller;
 
 import com.cardvault.dto.CardResponse;
+import com.cardvault.dto.CollectionPageResponse;
 import com.cardvault.dto.CollectionSummaryResponse;
 import com.cardvault.dto.UserCardRequest;
 import com.cardvault.dto.UserCardResponse;
+import com.cardvault.dto.UserCardView;
+import com.cardvault.model.Card;
 import com.cardvault.model.UserCard;
+import com.cardvault.repository.CollectionFilter;
 import com.cardvault.service.AchievementService;
+import com.cardvault.service.CompactCardCatalog;
 import com.cardvault.service.UserCardService;
-import com.cardvault.service.WishlistService;
+import com.cardvault.util.JsonArrayStream;
+import com.cardvault.util.StreamingTimeout;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -26,23 +38,54 @@ public class UserCardController {
 
     private final UserCardService userCardService;
     private final AchievementService achievementService;
-    private final WishlistService wishlistService;
+    private final CompactCardCatalog compactCardCatalog;
+    private final ObjectMapper objectMapper;
+    private final Duration streamTimeout;
 
     @Autowired
     public UserCardController(UserCardService userCardService,
                              AchievementService achievementService,
-                             WishlistService wishlistService) {
+                             CompactCardCatalog compactCardCatalog,
+                             ObjectMapper objectMapper,
+                             @Value("${cardvault.collection.stream-timeout:PT15M}") Duration streamTimeout) {
         this.userCardService = userCardService;
         this.achievementService = achievementService;
-        this.wishlistService = wishlistService;
+        this.compactCardCatalog = compactCardCatalog;
+        this.objectMapper = objectMapper;
+        this.streamTimeout = streamTimeout;
     }
 
+    /**
+     * The whole collection as a JSON array, streamed from the database as it is written.
+     */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<UserCardResponse>> getUserCollection(@PathVariable UUID userId) {
-        List<UserCard> userCards = userCardService.getUserCollectionSorted(userId);
-        List<UserCardResponse> response = userCards.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    public ResponseEntity<StreamingResponseBody> getUserCollection(@PathVariable UUID userId) {
+        StreamingTimeout.apply(streamTimeout);
+        StreamingResponseBody body = out -> {
+            JsonArrayStream json = new JsonArrayStream(objectMapper, UserCardResponse.class, out);
+            userCardService.streamCollection(userId, (view, card) -> json.write(convertToResponse(view, card)));
+            json.finish();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * The collection one bounded page at a time. Sort is one of value, name, set, acquired or created.
+     */
+    @GetMapping("/user/{userId}/page")
+    public ResponseEntity<CollectionPageResponse<UserCardResponse>> getUserCollectionPage(
+            @PathVariable UUID userId,
+            @RequestParam(defaultValue = "created") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String rarity,
+            @RequestParam(required = false) String set,
+            @RequestParam(required = false) String condition) {
+        UserCardService.CollectionPage page = userCardService.getCollectionPage(
+                userId, sort, new CollectionFilter(rarity, set, condition), cursor, size);
+        CollectionPageResponse<UserCardResponse> response = new CollectionPageResponse<>();
+        response.setData(convertViews(page.rows()));
+        response.setNextCursor(page.nextCursor());
         return ResponseEntity.ok(response);
     }
 
@@ -55,45 +98,26 @@ public class UserCardController {
 
     @GetMapping("/user/{userId}/summary")
     public ResponseEntity<CollectionSummaryResponse> getCollectionSummary(@PathVariable UUID userId) {
-        CollectionSummaryResponse summary = new CollectionSummaryResponse();
-        summary.setUniqueCards(userCardService.getCollectionCount(userId));
-        summary.setTotalCards(userCardService.getTotalCardQuantity(userId));
-        summary.setTotalValue(userCardService.getTotalCollectionValue(userId));
-        summary.setAchievementCount(achievementService.getUserAchievementCount(userId));
-        summary.setTotalPoints(achievementService.getUserTotalPoints(userId));
-        summary.setWishlistCount(wishlistService.getWishlistCount(userId));
+        CollectionSummaryResponse summary = userCardService.getCollectionSummary(userId);
         return ResponseEntity.ok(summary);
     }
 
     @GetMapping("/user/{userId}/top-cards")
     public ResponseEntity<List<UserCardResponse>> getTopValueCards(@PathVariable UUID userId,
                                                                    @RequestParam(defaultValue = "10") int limit) {
-        List<UserCard> topCards = userCardService.getTopValueCards(userId);
-        List<UserCardResponse> response = topCards.stream()
-                .limit(limit)
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(convertViews(userCardService.getTopValueCards(userId, limit)));
     }
 
     @GetMapping("/user/{userId}/rarity/{rarity}")
     public ResponseEntity<List<UserCardResponse>> getCardsByRarity(@PathVariable UUID userId,
                                                                    @PathVariable String rarity) {
-        List<UserCard> userCards = userCardService.getCardsByRarity(userId, rarity);
-        List<UserCardResponse> response = userCards.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(convertViews(userCardService.getCardsByRarity(userId, rarity)));
     }
 
     @GetMapping("/user/{userId}/set/{setName}")
     public ResponseEntity<List<UserCardResponse>> getCardsBySet(@PathVariable UUID userId,
                                                                 @PathVariable String setName) {
-        List<UserCard> userCards = userCardService.getCardsBySet(userId, setName);
-        List<UserCardResponse> response = userCards.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(convertViews(userCardService.getCardsBySet(userId, setName)));
     }
 
     @PostMapping("/user/{userId}")
@@ -108,9 +132,8 @@ public class UserCardController {
                 request.getCurrentValue()
         );
 
-        Long totalCards = userCardService.getTotalCardQuantity(userId);
-        BigDecimal totalValue = userCardService.getTotalCollectionValue(userId);
-        achievementService.checkAndAwardAchievements(userId, totalCards, totalValue);
+        CollectionSummaryResponse summary = userCardService.getCollectionSummary(userId);
+        achievementService.checkAndAwardAchievements(userId, summary.getTotalCards(), summary.getTotalValue());
 
         return ResponseEntity.status(HttpStatus.CREATED).body(convertToResponse(userCard));
     }
@@ -156,7 +179,7 @@ public class UserCardController {
         UserCardResponse response = new UserCardResponse();
         response.setId(userCard.getId());
         response.setUserId(userCard.getUser().getId());
-        response.setCard(convertCardToResponse(userCard.getCard()));
+        response.setCard(convertCardToResponse(compactCardCatalog.resolve(userCard.getCard())));
         response.setQuantity(userCard.getQuantity());
         response.setCondition(userCard.getCondition() != null ? userCard.getCondition().getName() : null);
         response.setPurchasePrice(userCard.getPurchasePrice());
@@ -177,7 +200,38 @@ public class UserCardController {
         return response;
     }
 
-    private CardResponse convertCardToResponse(com.cardvault.model.Card card) {
+    private List<UserCardResponse> convertViews(List<UserCardView> views) {
+        Map<UUID, Card> cards = compactCardCatalog.findAllById(views.stream().map(UserCardView::cardId).toList());
+        return views.stream()
+                .map(view -> convertToResponse(view, cards.get(view.cardId())))
+                .collect(Collectors.toList());
+    }
+
+    private UserCardResponse convertToResponse(UserCardView view, Card card) {
+        UserCardResponse response = new UserCardResponse();
+        response.setId(view.id());
+        response.setUserId(view.userId());
+        if (card != null) {
+            response.setCard(convertCardToResponse(card));
+        }
+        response.setQuantity(view.quantity());
+        response.setCondition(view.condition());
+        response.setPurchasePrice(view.purchasePrice());
+        response.setCurrentValue(view.currentValue());
+        response.setTotalValue(view.currentValue() != null ?
+                view.currentValue().multiply(BigDecimal.valueOf(view.quantity())) :
+                BigDecimal.ZERO);
+        response.setAcquisitionDate(view.acquisitionDate());
+        response.setNotes(view.notes());
+        response.setIsGraded(view.isGraded());
+        response.setGradeValue(view.gradeValue());
+        response.setGradingCompany(view.gradingCompany());
+        response.setCreatedAt(view.createdAt());
+        response.setUpdatedAt(view.updatedAt());
+        return response;
+    }
+
+    private CardResponse convertCardToResponse(Card card) {
         CardResponse response = new CardResponse();
         response.setId(card.getId());
         response.setApiId(card.getApiId());
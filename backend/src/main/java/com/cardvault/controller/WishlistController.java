@@ -6,6 +6,7 @@ import com.cardvault.dto.WishlistRequest;
 import com.cardvault.dto.WishlistResponse;
 import com.cardvault.model.Wishlist;
 import com.cardvault.repository.UserRepository;
+import com.cardvault.service.CompactCardCatalog;
 import com.cardvault.service.WishlistService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,11 +27,14 @@ public class WishlistController {
 
     private final WishlistService wishlistService;
     private final UserRepository userRepository;
+    private final CompactCardCatalog compactCardCatalog;
 
     @Autowired
-    public WishlistController(WishlistService wishlistService, UserRepository userRepository) {
+    public WishlistController(WishlistService wishlistService, UserRepository userRepository,
+                              CompactCardCatalog compactCardCatalog) {
         this.wishlistService = wishlistService;
         this.userRepository = userRepository;
+        this.compactCardCatalog = compactCardCatalog;
     }
 
     @GetMapping
@@ -130,7 +134,7 @@ public class WishlistController {
         WishlistResponse response = new WishlistResponse();
         response.setId(wishlist.getId());
         response.setUserId(wishlist.getUser().getId());
-        response.setCard(convertCardToResponse(wishlist.getCard()));
+        response.setCard(convertCardToResponse(compactCardCatalog.resolve(wishlist.getCard())));
         response.setPriority(wishlist.getPriority());
         response.setMaxPrice(wishlist.getMaxPrice());
         response.setNotes(wishlist.getNotes());
@@ -0,0 +1,13 @@
+package com.cardvault.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CardPageResponse {
+
+    private List<CardResponse> data;
+    // Pass back as ?cursor= for the next page; null on the last page
+    private String nextCursor;
+}
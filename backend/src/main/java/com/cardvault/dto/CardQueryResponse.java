@@ -0,0 +1,18 @@
+package com.cardvault.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+public class CardQueryResponse {
+
+    private List<UUID> ids;
+    private int page;
+    private int size;
+    private int totalCount;
+    // Dimension -> value -> number of matching cards
+    private Map<String, Map<String, Integer>> facets;
+}
@@ -0,0 +1,14 @@
+package com.cardvault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardSuggestionResponse {
+
+    private String name;
+    private int cardCount;
+}
@@ -0,0 +1,23 @@
+package com.cardvault.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class CollectionImportResponse {
+
+    private int rowCount;
+    // New collection rows, and rows whose quantity was added to a card the user already had
+    private int insertedCount;
+    private int mergedCount;
+    private int skippedCount;
+    // Rows added to the quantity of a row for the same card and condition whose price, date, notes or grading
+    // differ; those values are not kept, as a card can have only one row per condition
+    private int collapsedCount;
+    // One message per skipped row, up to a limit
+    private List<String> errors = new ArrayList<>();
+    // One message per collapsed row, up to a limit
+    private List<String> collapsed = new ArrayList<>();
+}
@@ -0,0 +1,13 @@
+package com.cardvault.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CollectionPageResponse<T> {
+
+    private List<T> data;
+    // Pass back as ?cursor= with the same sort and filters for the next page; null on the last page
+    private String nextCursor;
+}
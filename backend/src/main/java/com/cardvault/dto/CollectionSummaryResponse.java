@@ -7,6 +7,7 @@ public class CollectionSummaryResponse {
     private Long uniqueCards;
     private Long totalCards;
     private BigDecimal totalValue;
+    private Long totalSets;
     private Long achievementCount;
     private Long totalPoints;
     private Long wishlistCount;
@@ -14,11 +15,12 @@ public class CollectionSummaryResponse {
     public CollectionSummaryResponse() {
     }
 
-    public CollectionSummaryResponse(Long uniqueCards, Long totalCards, BigDecimal totalValue,
+    public CollectionSummaryResponse(Long uniqueCards, Long totalCards, BigDecimal totalValue, Long totalSets,
                                     Long achievementCount, Long totalPoints, Long wishlistCount) {
         this.uniqueCards = uniqueCards;
         this.totalCards = totalCards;
         this.totalValue = totalValue;
+        this.totalSets = totalSets;
         this.achievementCount = achievementCount;
         this.totalPoints = totalPoints;
         this.wishlistCount = wishlistCount;
@@ -48,6 +50,14 @@ public class CollectionSummaryResponse {
         this.totalValue = totalValue;
     }
 
+    public Long getTotalSets() {
+        return totalSets;
+    }
+
+    public void setTotalSets(Long totalSets) {
+        this.totalSets = totalSets;
+    }
+
     public Long getAchievementCount() {
         return achievementCount;
     }
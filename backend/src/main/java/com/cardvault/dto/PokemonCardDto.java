@@ -77,7 +77,7 @@ public class PokemonCardDto {
         private String ptcgoCode;
         private String releaseDate;
         private String updatedAt;
-        private CardImages images;
+        private PokemonSetDto.SetImages images;
     }
 
     @Data
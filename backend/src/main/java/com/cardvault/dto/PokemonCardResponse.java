@@ -1,6 +1,7 @@
 package com.cardvault.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 import java.util.List;
@@ -13,4 +14,8 @@ public class PokemonCardResponse {
     private int pageSize;
     private int count;
     private int totalCount;
+
+    // Set when the page was served from the last good copy because the Pokemon TCG API is unavailable
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean stale;
 }
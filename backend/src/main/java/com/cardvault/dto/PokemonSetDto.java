@@ -15,5 +15,12 @@ public class PokemonSetDto {
     private String ptcgoCode;
     private String releaseDate;
     private String updatedAt;
-    private PokemonCardDto.CardImages images;
+    private SetImages images;
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class SetImages {
+        private String symbol;
+        private String logo;
+    }
 }
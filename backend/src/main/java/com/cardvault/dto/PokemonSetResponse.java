@@ -0,0 +1,16 @@
+package com.cardvault.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PokemonSetResponse {
+    private List<PokemonSetDto> data;
+    private int page;
+    private int pageSize;
+    private int count;
+    private int totalCount;
+}
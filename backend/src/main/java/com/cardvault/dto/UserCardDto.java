@@ -1,5 +1,6 @@
 package com.cardvault.dto;
 
+import com.cardvault.model.Card;
 import com.cardvault.model.UserCard;
 import lombok.Data;
 
@@ -39,6 +40,13 @@ public class UserCardDto {
     }
 
     public static UserCardDto fromEntity(UserCard userCard) {
+        return fromEntity(userCard, userCard.getCard());
+    }
+
+    /**
+     * Convert with the given copy of the user card's card, e.g. one from the compact card catalog.
+     */
+    public static UserCardDto fromEntity(UserCard userCard, Card card) {
         UserCardDto dto = new UserCardDto();
         dto.setId(userCard.getId());
         dto.setUserId(userCard.getUser().getId());
@@ -57,18 +65,45 @@ public class UserCardDto {
             dto.setCondition(userCard.getCondition().getName());
         }
 
-        CardDto cardDto = new CardDto();
-        cardDto.setId(userCard.getCard().getId());
-        cardDto.setApiId(userCard.getCard().getApiId());
-        cardDto.setName(userCard.getCard().getName());
-        cardDto.setSetName(userCard.getCard().getSetName());
-        cardDto.setCardNumber(userCard.getCard().getCardNumber());
-        cardDto.setRarity(userCard.getCard().getRarity());
-        cardDto.setImageUrl(userCard.getCard().getImageUrl());
-        cardDto.setSmallImageUrl(userCard.getCard().getSmallImageUrl());
-        cardDto.setMarketPrice(userCard.getCard().getMarketPrice());
-        dto.setCard(cardDto);
+        dto.setCard(toCardDto(card));
+        return dto;
+    }
 
+    /**
+     * Convert a projected collection row, with its card looked up separately.
+     */
+    public static UserCardDto fromView(UserCardView view, Card card) {
+        UserCardDto dto = new UserCardDto();
+        dto.setId(view.id());
+        dto.setUserId(view.userId());
+        dto.setQuantity(view.quantity());
+        dto.setCondition(view.condition());
+        dto.setPurchasePrice(view.purchasePrice());
+        dto.setCurrentValue(view.currentValue());
+        dto.setAcquisitionDate(view.acquisitionDate());
+        dto.setNotes(view.notes());
+        dto.setIsGraded(view.isGraded());
+        dto.setGradeValue(view.gradeValue());
+        dto.setGradingCompany(view.gradingCompany());
+        dto.setCreatedAt(view.createdAt());
+        dto.setUpdatedAt(view.updatedAt());
+        if (card != null) {
+            dto.setCard(toCardDto(card));
+        }
         return dto;
     }
+
+    private static CardDto toCardDto(Card card) {
+        CardDto cardDto = new CardDto();
+        cardDto.setId(card.getId());
+        cardDto.setApiId(card.getApiId());
+        cardDto.setName(card.getName());
+        cardDto.setSetName(card.getSetName());
+        cardDto.setCardNumber(card.getCardNumber());
+        cardDto.setRarity(card.getRarity());
+        cardDto.setImageUrl(card.getImageUrl());
+        cardDto.setSmallImageUrl(card.getSmallImageUrl());
+        cardDto.setMarketPrice(card.getMarketPrice());
+        return cardDto;
+    }
 }
@@ -0,0 +1,26 @@
+package com.cardvault.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only row of a collection listing, selected straight from JPQL. The card is referenced by id
+ * and resolved separately, and the user is never loaded.
+ */
+public record UserCardView(UUID id,
+                           UUID userId,
+                           UUID cardId,
+                           Integer quantity,
+                           String condition,
+                           BigDecimal purchasePrice,
+                           BigDecimal currentValue,
+                           LocalDate acquisitionDate,
+                           String notes,
+                           Boolean isGraded,
+                           String gradeValue,
+                           String gradingCompany,
+                           LocalDateTime createdAt,
+                           LocalDateTime updatedAt) {
+}
@@ -0,0 +1,22 @@
+package com.cardvault.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request would exceed a limit on concurrent work, such as collection exports.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
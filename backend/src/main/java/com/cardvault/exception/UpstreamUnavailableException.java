@@ -0,0 +1,28 @@
+package com.cardvault.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when the Pokemon TCG API cannot be called right now: the circuit is open, the rate limit is
+ * exhausted, or the API kept failing after retries.
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public UpstreamUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public UpstreamUnavailableException(String message, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -2,6 +2,7 @@ package com.cardvault.model;
 
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Formula;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
@@ -23,19 +24,33 @@ public class Card {
     @Column(nullable = false, length = 100)
     private String name;
 
-    @Column(name = "set_name", length = 100)
+    @Column(name = "set_id", length = 50)
+    private String setId;
+
+    // Set name, series, rarity and type live in lookup tables; the keys are assigned from the names with
+    // CardRepository.assignLookupKeys before a card is saved, and the names are read back through the keys
+    @Column(name = "set_name_id")
+    private Short setNameId;
+
+    @Formula("(SELECT s.name FROM card_set_names s WHERE s.id = set_name_id)")
     private String setName;
 
-    @Column(name = "set_series", length = 100)
+    @Formula("(SELECT s.series FROM card_set_names s WHERE s.id = set_name_id)")
     private String setSeries;
 
     @Column(name = "card_number", length = 50)
     private String cardNumber;
 
-    @Column(length = 50)
+    @Column(name = "rarity_id")
+    private Short rarityId;
+
+    @Formula("(SELECT r.name FROM card_rarities r WHERE r.id = rarity_id)")
     private String rarity;
 
-    @Column(name = "card_type", length = 50)
+    @Column(name = "card_type_id")
+    private Short cardTypeId;
+
+    @Formula("(SELECT t.name FROM card_types t WHERE t.id = card_type_id)")
     private String cardType;
 
     @Column(length = 50)
@@ -58,6 +73,9 @@ public class Card {
     @Column(name = "market_price", precision = 10, scale = 2)
     private BigDecimal marketPrice;
 
+    @Column(name = "price_updated_at")
+    private LocalDate priceUpdatedAt;
+
     @Column(name = "release_date")
     private LocalDate releaseDate;
 
@@ -120,6 +138,22 @@ public class Card {
         this.name = name;
     }
 
+    public String getSetId() {
+        return setId;
+    }
+
+    public void setSetId(String setId) {
+        this.setId = setId;
+    }
+
+    public Short getSetNameId() {
+        return setNameId;
+    }
+
+    public void setSetNameId(Short setNameId) {
+        this.setNameId = setNameId;
+    }
+
     public String getSetName() {
         return setName;
     }
@@ -144,6 +178,14 @@ public class Card {
         this.cardNumber = cardNumber;
     }
 
+    public Short getRarityId() {
+        return rarityId;
+    }
+
+    public void setRarityId(Short rarityId) {
+        this.rarityId = rarityId;
+    }
+
     public String getRarity() {
         return rarity;
     }
@@ -152,6 +194,14 @@ public class Card {
         this.rarity = rarity;
     }
 
+    public Short getCardTypeId() {
+        return cardTypeId;
+    }
+
+    public void setCardTypeId(Short cardTypeId) {
+        this.cardTypeId = cardTypeId;
+    }
+
     public String getCardType() {
         return cardType;
     }
@@ -216,6 +266,14 @@ public class Card {
         this.marketPrice = marketPrice;
     }
 
+    public LocalDate getPriceUpdatedAt() {
+        return priceUpdatedAt;
+    }
+
+    public void setPriceUpdatedAt(LocalDate priceUpdatedAt) {
+        this.priceUpdatedAt = priceUpdatedAt;
+    }
+
     public LocalDate getReleaseDate() {
         return releaseDate;
     }
@@ -0,0 +1,29 @@
+package com.cardvault.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "card_details")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardDetail {
+
+    @Id
+    @Column(name = "api_id", length = 100)
+    private String apiId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false, columnDefinition = "JSONB")
+    private String data;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,68 @@
+package com.cardvault.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "card_sets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogSet {
+
+    @Id
+    @Column(length = 50)
+    private String id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Column(length = 100)
+    private String series;
+
+    @Column(name = "printed_total")
+    private Integer printedTotal;
+
+    private Integer total;
+
+    @Column(name = "ptcgo_code", length = 20)
+    private String ptcgoCode;
+
+    @Column(name = "release_date")
+    private LocalDate releaseDate;
+
+    @Column(name = "symbol_url", columnDefinition = "TEXT")
+    private String symbolUrl;
+
+    @Column(name = "logo_url", columnDefinition = "TEXT")
+    private String logoUrl;
+
+    @Column(name = "legality_unlimited", length = 20)
+    private String legalityUnlimited;
+
+    @Column(name = "legality_standard", length = 20)
+    private String legalityStandard;
+
+    @Column(name = "legality_expanded", length = 20)
+    private String legalityExpanded;
+
+    // updatedAt stamp reported by the Pokemon TCG API
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // updatedAt stamp the set's cards were last synced at, the incremental sync watermark
+    @Column(name = "synced_updated_at")
+    private LocalDateTime syncedUpdatedAt;
+
+    @Column(name = "synced_at")
+    private LocalDateTime syncedAt;
+
+    // Day the set's card prices were last refreshed, the incremental sync's price watermark
+    @Column(name = "prices_synced_at")
+    private LocalDate pricesSyncedAt;
+}
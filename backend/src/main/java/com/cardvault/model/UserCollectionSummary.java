@@ -0,0 +1,52 @@
+package com.cardvault.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Per-user collection totals. The row is maintained by database triggers on user_cards, user_achievements
+ * and wishlist in the same transaction as each change, so it is only ever read here.
+ */
+@Entity
+@Table(name = "user_collection_summaries")
+@Immutable
+@Data
+@NoArgsConstructor
+public class UserCollectionSummary {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    // Collection rows; a card held in two conditions counts twice
+    @Column(name = "unique_cards")
+    private Long uniqueCards;
+
+    @Column(name = "total_cards")
+    private Long totalCards;
+
+    @Column(name = "total_value")
+    private BigDecimal totalValue;
+
+    // Sets the user has at least one card from
+    @Column(name = "total_sets")
+    private Long totalSets;
+
+    @Column(name = "achievement_count")
+    private Long achievementCount;
+
+    @Column(name = "total_points")
+    private Long totalPoints;
+
+    @Column(name = "wishlist_count")
+    private Long wishlistCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
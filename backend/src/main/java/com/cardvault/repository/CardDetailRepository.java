@@ -0,0 +1,36 @@
+package com.cardvault.repository;
+
+import com.cardvault.model.CardDetail;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CardDetailRepository extends JpaRepository<CardDetail, String> {
+
+    String CATALOG_FILTER =
+            "FROM card_details d JOIN cards c ON c.api_id = d.api_id WHERE " +
+            "(CAST(:name AS TEXT) IS NULL OR c.name ILIKE CAST(:name AS TEXT)) AND " +
+            "(CAST(:setId AS TEXT) IS NULL OR c.set_id = CAST(:setId AS TEXT)) AND " +
+            // Type and rarity match case-insensitively against the small lookup tables, then by key
+            "(CAST(:type AS TEXT) IS NULL OR c.card_type_id IN " +
+            "(SELECT t.id FROM card_types t WHERE LOWER(t.name) = LOWER(CAST(:type AS TEXT)))) AND " +
+            "(CAST(:rarity AS TEXT) IS NULL OR c.rarity_id IN " +
+            "(SELECT r.id FROM card_rarities r WHERE LOWER(r.name) = LOWER(CAST(:rarity AS TEXT)))) AND " +
+            "(CAST(:supertype AS TEXT) IS NULL OR LOWER(c.supertype) = LOWER(CAST(:supertype AS TEXT)))";
+
+    @Query(value = "SELECT d.* " + CATALOG_FILTER +
+                   " ORDER BY c.release_date, c.set_id, " +
+                   "CAST(NULLIF(REGEXP_REPLACE(c.card_number, '\\D', '', 'g'), '') AS INTEGER), c.card_number",
+           countQuery = "SELECT COUNT(*) " + CATALOG_FILTER,
+           nativeQuery = true)
+    Page<CardDetail> searchCatalog(@Param("name") String namePattern,
+                                   @Param("setId") String setId,
+                                   @Param("type") String type,
+                                   @Param("rarity") String rarity,
+                                   @Param("supertype") String supertype,
+                                   Pageable pageable);
+}
@@ -1,33 +1,135 @@
 package com.cardvault.repository;
 
 import com.cardvault.model.Card;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface CardRepository extends JpaRepository<Card, UUID> {
+public interface CardRepository extends JpaRepository<Card, UUID>, CardRepositoryCustom {
 
     Optional<Card> findByApiId(String apiId);
 
     List<Card> findByNameContainingIgnoreCase(String name);
 
-    List<Card> findBySetName(String setName);
+    List<Card> findByNameIn(Collection<String> names);
 
-    List<Card> findByRarity(String rarity);
+    List<Card> findByApiIdIn(Collection<String> apiIds);
 
-    List<Card> findByCardType(String cardType);
+    /**
+     * Ids of the cards of a set. Set names, rarities and types live in lookup tables, so the native queries
+     * here filter on their keys and return card ids, which are resolved through the compact card catalog.
+     */
+    @Query(value = "SELECT c.id FROM cards c " +
+                   "WHERE c.set_name_id = (SELECT s.id FROM card_set_names s WHERE s.name = :setName)",
+           nativeQuery = true)
+    List<UUID> findIdsBySetName(@Param("setName") String setName);
 
-    @Query("SELECT c FROM Card c WHERE " +
-           "LOWER(c.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(c.setName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(c.rarity) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<Card> searchCards(@Param("searchTerm") String searchTerm);
+    @Query(value = "SELECT c.id FROM cards c " +
+                   "WHERE c.card_type_id = (SELECT t.id FROM card_types t WHERE t.name = :cardType)",
+           nativeQuery = true)
+    List<UUID> findIdsByCardType(@Param("cardType") String cardType);
 
-    List<Card> findBySetNameOrderByCardNumberAsc(String setName);
+    /**
+     * Substring search over name, set name and rarity, served by the pg_trgm GIN indexes and ranked by
+     * relevance: name prefix matches first, then by trigram word similarity. Set names and rarities are
+     * matched in their small lookup tables and their cards found by key. The pattern must already have
+     * LIKE wildcards escaped; the similarity ranking takes the unescaped term, so the escapes do not count
+     * as trigrams.
+     * <p>
+     * Keyset paginated: pass the name, set name, rarity and id of the last card of the previous page, or
+     * nulls for the first page. The cursor card's rank is recomputed from those values, so the cursor stays
+     * valid even if that card is deleted.
+     */
+    @Query(value = "SELECT s.id FROM (" +
+                   "SELECT c.id, c.name, (c.name ILIKE CONCAT(:searchTerm, '%')) AS prefix_match, " +
+                   "GREATEST(word_similarity(:rawTerm, c.name) * 2, " +
+                   "COALESCE(word_similarity(:rawTerm, sn.name), 0), " +
+                   "COALESCE(word_similarity(:rawTerm, r.name), 0)) AS score " +
+                   // One branch per index, as an OR across the three tables is planned as a full scan
+                   "FROM (SELECT n.id, n.name, n.set_name_id, n.rarity_id FROM cards n " +
+                   "WHERE n.name ILIKE CONCAT('%', :searchTerm, '%') " +
+                   "UNION SELECT n.id, n.name, n.set_name_id, n.rarity_id FROM cards n " +
+                   "JOIN card_set_names m ON m.id = n.set_name_id WHERE m.name ILIKE CONCAT('%', :searchTerm, '%') " +
+                   "UNION SELECT n.id, n.name, n.set_name_id, n.rarity_id FROM cards n " +
+                   "JOIN card_rarities m ON m.id = n.rarity_id WHERE m.name ILIKE CONCAT('%', :searchTerm, '%')) c " +
+                   "LEFT JOIN card_set_names sn ON sn.id = c.set_name_id " +
+                   "LEFT JOIN card_rarities r ON r.id = c.rarity_id) s " +
+                   "CROSS JOIN (SELECT (CAST(:afterName AS TEXT) ILIKE CONCAT(:searchTerm, '%')) AS prefix_match, " +
+                   "GREATEST(word_similarity(:rawTerm, CAST(:afterName AS TEXT)) * 2, " +
+                   "COALESCE(word_similarity(:rawTerm, CAST(:afterSetName AS TEXT)), 0), " +
+                   "COALESCE(word_similarity(:rawTerm, CAST(:afterRarity AS TEXT)), 0)) AS score) k " +
+                   "WHERE CAST(:afterId AS TEXT) IS NULL " +
+                   "OR s.prefix_match < k.prefix_match " +
+                   "OR (s.prefix_match = k.prefix_match AND (s.score < k.score " +
+                   "OR (s.score = k.score AND (s.name, s.id) > (CAST(:afterName AS TEXT), CAST(:afterId AS UUID))))) " +
+                   "ORDER BY s.prefix_match DESC, s.score DESC, s.name, s.id",
+           nativeQuery = true)
+    List<UUID> searchCardIds(@Param("searchTerm") String searchTerm,
+                             @Param("rawTerm") String rawTerm,
+                             @Param("afterName") String afterName,
+                             @Param("afterSetName") String afterSetName,
+                             @Param("afterRarity") String afterRarity,
+                             @Param("afterId") String afterId,
+                             Pageable pageable);
+
+    /**
+     * Ids of all cards ordered by name, starting after the given name and id (both null for the first page).
+     */
+    @Query(value = "SELECT c.id FROM cards c " +
+                   "WHERE CAST(:afterId AS TEXT) IS NULL " +
+                   "OR (c.name, c.id) > (CAST(:afterName AS TEXT), CAST(:afterId AS UUID)) " +
+                   "ORDER BY c.name, c.id",
+           nativeQuery = true)
+    List<UUID> findIdPageOrderByName(@Param("afterName") String afterName,
+                                     @Param("afterId") String afterId,
+                                     Pageable pageable);
+
+    /**
+     * Ids of the cards of a set ordered by card number, starting after the given card number and id.
+     */
+    @Query(value = "SELECT c.id FROM cards c " +
+                   "WHERE c.set_name_id = (SELECT s.id FROM card_set_names s WHERE s.name = :setName) " +
+                   "AND (CAST(:afterId AS TEXT) IS NULL " +
+                   "OR (COALESCE(c.card_number, ''), c.id) > (CAST(:afterNumber AS TEXT), CAST(:afterId AS UUID))) " +
+                   "ORDER BY COALESCE(c.card_number, ''), c.id",
+           nativeQuery = true)
+    List<UUID> findIdPageBySetName(@Param("setName") String setName,
+                                   @Param("afterNumber") String afterNumber,
+                                   @Param("afterId") String afterId,
+                                   Pageable pageable);
+
+    /**
+     * Ids of the cards of a rarity ordered by name, starting after the given name and id.
+     */
+    @Query(value = "SELECT c.id FROM cards c " +
+                   "WHERE c.rarity_id = (SELECT r.id FROM card_rarities r WHERE r.name = :rarity) " +
+                   "AND (CAST(:afterId AS TEXT) IS NULL " +
+                   "OR (c.name, c.id) > (CAST(:afterName AS TEXT), CAST(:afterId AS UUID))) " +
+                   "ORDER BY c.name, c.id",
+           nativeQuery = true)
+    List<UUID> findIdPageByRarity(@Param("rarity") String rarity,
+                                  @Param("afterName") String afterName,
+                                  @Param("afterId") String afterId,
+                                  Pageable pageable);
+
+    @Query("SELECT c.name, COUNT(c) FROM Card c GROUP BY c.name")
+    List<Object[]> countCardsByName();
+
+    /**
+     * Rows for the facet index, as {@code [id, set name, rarity, type, supertype]}, grouped by set.
+     */
+    @Query(value = "SELECT c.id, s.name AS set_name, r.name AS rarity, t.name AS card_type, c.supertype " +
+                   "FROM cards c LEFT JOIN card_set_names s ON s.id = c.set_name_id " +
+                   "LEFT JOIN card_rarities r ON r.id = c.rarity_id LEFT JOIN card_types t ON t.id = c.card_type_id " +
+                   "ORDER BY s.name, c.card_number, c.id",
+           nativeQuery = true)
+    List<Object[]> findFacetRows();
 }
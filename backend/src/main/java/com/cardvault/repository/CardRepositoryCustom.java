@@ -0,0 +1,28 @@
+package com.cardvault.repository;
+
+import com.cardvault.model.Card;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public interface CardRepositoryCustom {
+
+    /**
+     * Insert or update catalog cards by api id, together with their full API documents,
+     * using batched statements. Assigns the lookup keys of the cards first.
+     */
+    void upsertCatalog(List<Card> cards, Map<String, String> detailJsonByApiId);
+
+    /**
+     * Set the set name, rarity and type keys of the cards from their names, adding names not stored yet.
+     * Runs a few statements for the whole batch.
+     */
+    void assignLookupKeys(Collection<Card> cards);
+
+    /**
+     * Stream every card through the action as an unmanaged entity, without loading them all at once.
+     */
+    void forEachCard(Consumer<Card> action);
+}
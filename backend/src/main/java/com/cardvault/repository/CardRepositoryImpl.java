@@ -0,0 +1,235 @@
+package com.cardvault.repository;
+
+import com.cardvault.model.Card;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public class CardRepositoryImpl implements CardRepositoryCustom {
+
+    private static final String UPSERT_CARD_SQL =
+            "INSERT INTO cards (api_id, name, set_id, set_name_id, card_number, rarity_id, card_type_id, " +
+            "supertype, subtypes, hp, artist, image_url, small_image_url, market_price, price_updated_at, " +
+            "release_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (api_id) DO UPDATE SET " +
+            "name = EXCLUDED.name, set_id = EXCLUDED.set_id, set_name_id = EXCLUDED.set_name_id, " +
+            "card_number = EXCLUDED.card_number, rarity_id = EXCLUDED.rarity_id, " +
+            "card_type_id = EXCLUDED.card_type_id, supertype = EXCLUDED.supertype, subtypes = EXCLUDED.subtypes, " +
+            "hp = EXCLUDED.hp, artist = EXCLUDED.artist, image_url = EXCLUDED.image_url, " +
+            "small_image_url = EXCLUDED.small_image_url, market_price = EXCLUDED.market_price, " +
+            "price_updated_at = EXCLUDED.price_updated_at, release_date = EXCLUDED.release_date " +
+            // Leave unchanged rows alone so re-syncing a set does not rewrite every row
+            "WHERE (cards.name, cards.set_id, cards.set_name_id, cards.card_number, cards.rarity_id, " +
+            "cards.card_type_id, cards.supertype, cards.subtypes, cards.hp, cards.artist, cards.image_url, " +
+            "cards.small_image_url, cards.market_price, cards.price_updated_at, cards.release_date) " +
+            "IS DISTINCT FROM (EXCLUDED.name, EXCLUDED.set_id, EXCLUDED.set_name_id, EXCLUDED.card_number, " +
+            "EXCLUDED.rarity_id, EXCLUDED.card_type_id, EXCLUDED.supertype, EXCLUDED.subtypes, EXCLUDED.hp, " +
+            "EXCLUDED.artist, EXCLUDED.image_url, EXCLUDED.small_image_url, EXCLUDED.market_price, " +
+            "EXCLUDED.price_updated_at, EXCLUDED.release_date)";
+
+    private static final String UPSERT_DETAIL_SQL =
+            "INSERT INTO card_details (api_id, data, updated_at) VALUES (?, CAST(? AS JSONB), CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (api_id) DO UPDATE SET data = EXCLUDED.data, updated_at = EXCLUDED.updated_at " +
+            "WHERE card_details.data IS DISTINCT FROM EXCLUDED.data";
+
+    private static final String SELECT_CARDS_SQL =
+            "SELECT c.id, c.api_id, c.name, c.set_id, s.name AS set_name, s.series AS set_series, c.card_number, " +
+            "r.name AS rarity, t.name AS card_type, c.supertype, c.subtypes, c.hp, c.artist, c.image_url, " +
+            "c.small_image_url, c.market_price, c.price_updated_at, c.release_date, c.created_at, c.updated_at " +
+            "FROM cards c LEFT JOIN card_set_names s ON s.id = c.set_name_id " +
+            "LEFT JOIN card_rarities r ON r.id = c.rarity_id LEFT JOIN card_types t ON t.id = c.card_type_id";
+
+    private static final String SELECT_SET_NAMES_SQL =
+            "SELECT id, name, series FROM card_set_names WHERE name = ANY (?)";
+
+    // Changes the series only when the cards name one, like the set name key it replaces
+    private static final String UPSERT_SET_NAMES_SQL =
+            "INSERT INTO card_set_names (name, series) SELECT * FROM unnest(CAST(? AS TEXT[]), CAST(? AS TEXT[])) " +
+            "ON CONFLICT (name) DO UPDATE SET series = EXCLUDED.series " +
+            "WHERE EXCLUDED.series IS NOT NULL AND card_set_names.series IS DISTINCT FROM EXCLUDED.series";
+
+    private static final String SELECT_RARITIES_SQL = "SELECT id, name FROM card_rarities WHERE name = ANY (?)";
+
+    private static final String INSERT_RARITIES_SQL =
+            "INSERT INTO card_rarities (name) SELECT unnest(CAST(? AS TEXT[])) ON CONFLICT (name) DO NOTHING";
+
+    private static final String SELECT_TYPES_SQL = "SELECT id, name FROM card_types WHERE name = ANY (?)";
+
+    private static final String INSERT_TYPES_SQL =
+            "INSERT INTO card_types (name) SELECT unnest(CAST(? AS TEXT[])) ON CONFLICT (name) DO NOTHING";
+
+    private static final int BATCH_SIZE = 500;
+    private static final int FETCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void upsertCatalog(List<Card> cards, Map<String, String> detailJsonByApiId) {
+        assignLookupKeys(cards);
+        jdbcTemplate.batchUpdate(UPSERT_CARD_SQL, cards, BATCH_SIZE, (ps, card) -> {
+            ps.setString(1, card.getApiId());
+            ps.setString(2, card.getName());
+            ps.setString(3, card.getSetId());
+            ps.setObject(4, card.getSetNameId(), Types.SMALLINT);
+            ps.setString(5, card.getCardNumber());
+            ps.setObject(6, card.getRarityId(), Types.SMALLINT);
+            ps.setObject(7, card.getCardTypeId(), Types.SMALLINT);
+            ps.setString(8, card.getSupertype());
+            ps.setString(9, card.getSubtypes());
+            ps.setObject(10, card.getHp(), Types.INTEGER);
+            ps.setString(11, card.getArtist());
+            ps.setString(12, card.getImageUrl());
+            ps.setString(13, card.getSmallImageUrl());
+            ps.setBigDecimal(14, card.getMarketPrice());
+            ps.setDate(15, card.getPriceUpdatedAt() != null ? Date.valueOf(card.getPriceUpdatedAt()) : null);
+            ps.setDate(16, card.getReleaseDate() != null ? Date.valueOf(card.getReleaseDate()) : null);
+        });
+
+        if (!detailJsonByApiId.isEmpty()) {
+            List<Map.Entry<String, String>> details = new ArrayList<>(detailJsonByApiId.entrySet());
+            jdbcTemplate.batchUpdate(UPSERT_DETAIL_SQL, details, BATCH_SIZE, (ps, detail) -> {
+                ps.setString(1, detail.getKey());
+                ps.setString(2, detail.getValue());
+            });
+        }
+    }
+
+    @Override
+    @Transactional
+    public void assignLookupKeys(Collection<Card> cards) {
+        Map<String, String> seriesBySet = new HashMap<>();
+        Set<String> rarities = new HashSet<>();
+        Set<String> types = new HashSet<>();
+        for (Card card : cards) {
+            if (card.getSetName() != null && seriesBySet.get(card.getSetName()) == null) {
+                seriesBySet.put(card.getSetName(), card.getSetSeries());
+            }
+            if (card.getRarity() != null) {
+                rarities.add(card.getRarity());
+            }
+            if (card.getCardType() != null) {
+                types.add(card.getCardType());
+            }
+        }
+
+        Map<String, Short> setKeys = setNameKeys(seriesBySet);
+        Map<String, Short> rarityKeys = lookupKeys(SELECT_RARITIES_SQL, INSERT_RARITIES_SQL, rarities);
+        Map<String, Short> typeKeys = lookupKeys(SELECT_TYPES_SQL, INSERT_TYPES_SQL, types);
+        for (Card card : cards) {
+            card.setSetNameId(card.getSetName() != null ? setKeys.get(card.getSetName()) : null);
+            card.setRarityId(card.getRarity() != null ? rarityKeys.get(card.getRarity()) : null);
+            card.setCardTypeId(card.getCardType() != null ? typeKeys.get(card.getCardType()) : null);
+        }
+    }
+
+    /**
+     * Keys of the given set names, with their series or null, adding the missing ones and updating changed series.
+     */
+    private Map<String, Short> setNameKeys(Map<String, String> seriesBySet) {
+        Map<String, Short> keys = new HashMap<>();
+        if (seriesBySet.isEmpty()) {
+            return keys;
+        }
+        Map<String, String> stored = new HashMap<>();
+        jdbcTemplate.query(SELECT_SET_NAMES_SQL, ps -> ps.setArray(1, textArray(ps, seriesBySet.keySet())),
+                (RowCallbackHandler) rs -> {
+                    keys.put(rs.getString("name"), rs.getShort("id"));
+                    stored.put(rs.getString("name"), rs.getString("series"));
+                });
+        List<String> changed = seriesBySet.entrySet().stream()
+                .filter(set -> !keys.containsKey(set.getKey())
+                        || (set.getValue() != null && !set.getValue().equals(stored.get(set.getKey()))))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (!changed.isEmpty()) {
+            List<String> series = changed.stream().map(seriesBySet::get).toList();
+            jdbcTemplate.update(UPSERT_SET_NAMES_SQL, ps -> {
+                ps.setArray(1, textArray(ps, changed));
+                ps.setArray(2, textArray(ps, series));
+            });
+            jdbcTemplate.query(SELECT_SET_NAMES_SQL, ps -> ps.setArray(1, textArray(ps, changed)),
+                    (RowCallbackHandler) rs -> keys.put(rs.getString("name"), rs.getShort("id")));
+        }
+        return keys;
+    }
+
+    /**
+     * Keys of the given lookup values, adding the missing ones. Values already stored are only read, so they
+     * never consume a sequence number.
+     */
+    private Map<String, Short> lookupKeys(String selectSql, String insertSql, Set<String> names) {
+        Map<String, Short> keys = new HashMap<>();
+        if (names.isEmpty()) {
+            return keys;
+        }
+        RowCallbackHandler collect = rs -> keys.put(rs.getString("name"), rs.getShort("id"));
+        jdbcTemplate.query(selectSql, ps -> ps.setArray(1, textArray(ps, names)), collect);
+        List<String> missing = names.stream().filter(name -> !keys.containsKey(name)).toList();
+        if (!missing.isEmpty()) {
+            jdbcTemplate.update(insertSql, ps -> ps.setArray(1, textArray(ps, missing)));
+            jdbcTemplate.query(selectSql, ps -> ps.setArray(1, textArray(ps, missing)), collect);
+        }
+        return keys;
+    }
+
+    private static Array textArray(PreparedStatement ps, Collection<String> values) throws SQLException {
+        return ps.getConnection().createArrayOf("text", values.toArray());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachCard(Consumer<Card> action) {
+        // A fetch size inside a transaction makes the PostgreSQL driver use a cursor instead of buffering all rows
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_CARDS_SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> action.accept(mapCard(rs)));
+    }
+
+    private static Card mapCard(ResultSet rs) throws SQLException {
+        Card card = new Card();
+        card.setId(rs.getObject("id", UUID.class));
+        card.setApiId(rs.getString("api_id"));
+        card.setName(rs.getString("name"));
+        card.setSetId(rs.getString("set_id"));
+        card.setSetName(rs.getString("set_name"));
+        card.setSetSeries(rs.getString("set_series"));
+        card.setCardNumber(rs.getString("card_number"));
+        card.setRarity(rs.getString("rarity"));
+        card.setCardType(rs.getString("card_type"));
+        card.setSupertype(rs.getString("supertype"));
+        card.setSubtypes(rs.getString("subtypes"));
+        card.setHp(rs.getObject("hp", Integer.class));
+        card.setArtist(rs.getString("artist"));
+        card.setImageUrl(rs.getString("image_url"));
+        card.setSmallImageUrl(rs.getString("small_image_url"));
+        card.setMarketPrice(rs.getBigDecimal("market_price"));
+        card.setPriceUpdatedAt(rs.getObject("price_updated_at", LocalDate.class));
+        card.setReleaseDate(rs.getObject("release_date", LocalDate.class));
+        card.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        card.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+        return card;
+    }
+}
@@ -0,0 +1,16 @@
+package com.cardvault.repository;
+
+import com.cardvault.model.CatalogSet;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CatalogSetRepository extends JpaRepository<CatalogSet, String> {
+
+    // Sets with at least one card in someone's collection, whose prices the incremental sync keeps current
+    @Query("SELECT DISTINCT c.setId FROM UserCard uc JOIN uc.card c WHERE c.setId IS NOT NULL")
+    List<String> findCollectedSetIds();
+}
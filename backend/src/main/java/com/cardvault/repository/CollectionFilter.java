@@ -0,0 +1,7 @@
+package com.cardvault.repository;
+
+/**
+ * Optional filters of the paginated collection listing; null fields do not filter.
+ */
+public record CollectionFilter(String rarity, String setName, String condition) {
+}
@@ -0,0 +1,48 @@
+package com.cardvault.repository;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sort orders of the paginated collection listing. Each sorts by its keys and then by user card id, all in
+ * the same direction, so a page can continue after the last row with a single row comparison.
+ */
+public enum CollectionSort {
+
+    VALUE(true, new Key("uc.total_value", "NUMERIC")),
+    NAME(false, new Key("c.name", "TEXT")),
+    SET(false, new Key("COALESCE(sn.name, '')", "TEXT"), new Key("COALESCE(c.card_number, '')", "TEXT")),
+    // Missing dates sort as -infinity, i.e. last, so the keys are never null
+    ACQUIRED(true, new Key("COALESCE(uc.acquisition_date, DATE '-infinity')", "DATE")),
+    CREATED(true, new Key("COALESCE(uc.created_at, TIMESTAMP '-infinity')", "TIMESTAMP"));
+
+    /**
+     * A sort expression and the SQL type a cursor value is cast back to.
+     */
+    public record Key(String expression, String type) {
+    }
+
+    private final boolean descending;
+    private final List<Key> keys;
+
+    CollectionSort(boolean descending, Key... keys) {
+        this.descending = descending;
+        this.keys = List.of(keys);
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public List<Key> getKeys() {
+        return keys;
+    }
+
+    public static CollectionSort fromParam(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown sort: " + value);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.cardvault.repository;
+
+import com.cardvault.dto.UserCardView;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface UserCardRepositoryCustom {
+
+    /**
+     * A collection row with the values of its sort keys, as text, to continue a listing after it.
+     */
+    record KeyedView(UserCardView view, List<String> sortKey) {
+    }
+
+    /**
+     * A row of a bulk collection import, resolved to catalog and condition ids.
+     */
+    record ImportedUserCard(UUID cardId, Long conditionId, int quantity, BigDecimal purchasePrice,
+                            BigDecimal currentValue, LocalDate acquisitionDate, String notes, Boolean isGraded,
+                            String gradeValue, String gradingCompany) {
+
+        public ImportedUserCard withQuantity(int quantity) {
+            return new ImportedUserCard(cardId, conditionId, quantity, purchasePrice, currentValue, acquisitionDate,
+                    notes, isGraded, gradeValue, gradingCompany);
+        }
+    }
+
+    /**
+     * What an import did with its rows. {@code collapsed} holds the indexes of rows whose quantity went to the
+     * user's existing row for the same card and condition although their other values differ; only one row
+     * per card and condition can exist, so those values were not kept.
+     */
+    record ImportResult(int insertedCount, int mergedCount, List<Integer> collapsed) {
+    }
+
+    /**
+     * Up to {@code limit} rows of a user's collection in the given order, starting after the row whose sort
+     * key values and id are {@code after} (null for the first page).
+     */
+    List<KeyedView> findCollectionPage(UUID userId, CollectionSort sort, CollectionFilter filter,
+                                       List<String> after, int limit);
+
+    /**
+     * Every row of a user's collection matching the filter, in the given order.
+     */
+    List<UserCardView> findCollectionViews(UUID userId, CollectionSort sort, CollectionFilter filter);
+
+    /**
+     * Add imported rows to a user's collection with batched statements. A row equal to one the user already
+     * has in everything but quantity adds to that row's quantity. A row with a condition the user already
+     * holds the card in, but different values, adds to that row's quantity and is reported as collapsed.
+     * The others are inserted.
+     */
+    ImportResult importRows(UUID userId, List<ImportedUserCard> rows);
+}
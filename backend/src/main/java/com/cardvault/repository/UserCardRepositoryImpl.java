@@ -0,0 +1,220 @@
+package com.cardvault.repository;
+
+import com.cardvault.dto.UserCardView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+public class UserCardRepositoryImpl implements UserCardRepositoryCustom {
+
+    private static final String SELECT_VIEW_SQL =
+            "SELECT uc.id, uc.user_id, uc.card_id, uc.quantity, cc.name AS condition_name, uc.purchase_price, " +
+            "uc.current_value, uc.acquisition_date, uc.notes, uc.is_graded, uc.grade_value, uc.grading_company, " +
+            "uc.created_at, uc.updated_at";
+
+    // The set name join is only planned in when the set sort reads it
+    private static final String FROM_SQL =
+            " FROM user_cards uc JOIN cards c ON c.id = uc.card_id " +
+            "LEFT JOIN card_set_names sn ON sn.id = c.set_name_id " +
+            "LEFT JOIN card_conditions cc ON cc.id = uc.condition_id WHERE uc.user_id = ?";
+
+    // Adds to one existing row that matches in everything but quantity, with the defaults the insert would apply
+    private static final String MERGE_QUANTITY_SQL =
+            "UPDATE user_cards SET quantity = quantity + ?, updated_at = CURRENT_TIMESTAMP WHERE id = (" +
+            "SELECT id FROM user_cards WHERE user_id = ? AND card_id = ? AND condition_id IS NOT DISTINCT FROM ? " +
+            "AND purchase_price IS NOT DISTINCT FROM ? AND current_value IS NOT DISTINCT FROM ? " +
+            "AND acquisition_date IS NOT DISTINCT FROM COALESCE(?, CURRENT_DATE) " +
+            "AND notes IS NOT DISTINCT FROM ? AND is_graded IS NOT DISTINCT FROM COALESCE(?, FALSE) " +
+            "AND grade_value IS NOT DISTINCT FROM ? AND grading_company IS NOT DISTINCT FROM ? " +
+            "ORDER BY created_at, id LIMIT 1)";
+
+    // UNIQUE(user_id, card_id, condition_id) allows one row per card and condition, so this updates at most one
+    private static final String COLLAPSE_QUANTITY_SQL =
+            "UPDATE user_cards SET quantity = quantity + ?, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE user_id = ? AND card_id = ? AND condition_id = ?";
+
+    // The conflict clause only covers rows inserted concurrently since the merge, and never rows without a condition
+    private static final String INSERT_SQL =
+            "INSERT INTO user_cards (user_id, card_id, quantity, condition_id, purchase_price, current_value, " +
+            "acquisition_date, notes, is_graded, grade_value, grading_company) " +
+            "VALUES (?, ?, ?, ?, ?, ?, COALESCE(?, CURRENT_DATE), ?, COALESCE(?, FALSE), ?, ?) " +
+            "ON CONFLICT (user_id, card_id, condition_id) DO UPDATE SET " +
+            "quantity = user_cards.quantity + EXCLUDED.quantity, updated_at = CURRENT_TIMESTAMP";
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<KeyedView> findCollectionPage(UUID userId, CollectionSort sort, CollectionFilter filter,
+                                              List<String> after, int limit) {
+        List<CollectionSort.Key> keys = sort.getKeys();
+        List<Object> args = new ArrayList<>();
+        String sql = collectionSql(userId, sort, filter, after, args) + " LIMIT ?";
+        args.add(limit);
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            List<String> sortKey = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                sortKey.add(rs.getString("sort_key_" + i));
+            }
+            return new KeyedView(mapView(rs), sortKey);
+        }, args.toArray());
+    }
+
+    @Override
+    public List<UserCardView> findCollectionViews(UUID userId, CollectionSort sort, CollectionFilter filter) {
+        List<Object> args = new ArrayList<>();
+        String sql = collectionSql(userId, sort, filter, null, args);
+        return jdbcTemplate.query(sql, (rs, rowNum) -> mapView(rs), args.toArray());
+    }
+
+    @Override
+    @Transactional
+    public ImportResult importRows(UUID userId, List<ImportedUserCard> rows) {
+        List<Integer> all = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            all.add(i);
+        }
+        int[][] merged = jdbcTemplate.batchUpdate(MERGE_QUANTITY_SQL, all, BATCH_SIZE, (ps, index) -> {
+            ImportedUserCard row = rows.get(index);
+            ps.setInt(1, row.quantity());
+            ps.setObject(2, userId);
+            ps.setObject(3, row.cardId());
+            ps.setObject(4, row.conditionId(), Types.INTEGER);
+            ps.setBigDecimal(5, row.purchasePrice());
+            ps.setBigDecimal(6, row.currentValue());
+            ps.setObject(7, row.acquisitionDate(), Types.DATE);
+            ps.setString(8, row.notes());
+            ps.setObject(9, row.isGraded(), Types.BOOLEAN);
+            ps.setString(10, row.gradeValue());
+            ps.setString(11, row.gradingCompany());
+        });
+        List<Integer> unmatched = unmatched(all, merged);
+
+        List<Integer> withCondition = unmatched.stream().filter(index -> rows.get(index).conditionId() != null).toList();
+        int[][] collapsed = jdbcTemplate.batchUpdate(COLLAPSE_QUANTITY_SQL, withCondition, BATCH_SIZE, (ps, index) -> {
+            ImportedUserCard row = rows.get(index);
+            ps.setInt(1, row.quantity());
+            ps.setObject(2, userId);
+            ps.setObject(3, row.cardId());
+            ps.setObject(4, row.conditionId(), Types.INTEGER);
+        });
+        Set<Integer> stillUnmatched = new HashSet<>(unmatched(withCondition, collapsed));
+        List<Integer> collapsedRows = withCondition.stream().filter(index -> !stillUnmatched.contains(index)).toList();
+
+        List<Integer> inserts = unmatched.stream()
+                .filter(index -> rows.get(index).conditionId() == null || stillUnmatched.contains(index))
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_SQL, inserts, BATCH_SIZE, (ps, index) -> {
+            ImportedUserCard row = rows.get(index);
+            ps.setObject(1, userId);
+            ps.setObject(2, row.cardId());
+            ps.setInt(3, row.quantity());
+            ps.setObject(4, row.conditionId(), Types.INTEGER);
+            ps.setBigDecimal(5, row.purchasePrice());
+            ps.setBigDecimal(6, row.currentValue());
+            ps.setObject(7, row.acquisitionDate(), Types.DATE);
+            ps.setString(8, row.notes());
+            ps.setObject(9, row.isGraded(), Types.BOOLEAN);
+            ps.setString(10, row.gradeValue());
+            ps.setString(11, row.gradingCompany());
+        });
+        return new ImportResult(inserts.size(), rows.size() - unmatched.size() + collapsedRows.size(), collapsedRows);
+    }
+
+    /**
+     * The items whose statement in a batch update changed no row.
+     */
+    private static List<Integer> unmatched(List<Integer> items, int[][] counts) {
+        List<Integer> unmatched = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    unmatched.add(items.get(index));
+                }
+                index++;
+            }
+        }
+        return unmatched;
+    }
+
+    /**
+     * The ordered collection query without a limit, appending its parameters to {@code args}.
+     */
+    private static String collectionSql(UUID userId, CollectionSort sort, CollectionFilter filter,
+                                        List<String> after, List<Object> args) {
+        List<CollectionSort.Key> keys = sort.getKeys();
+        String direction = sort.isDescending() ? " DESC" : "";
+        StringBuilder sql = new StringBuilder(SELECT_VIEW_SQL);
+        for (int i = 0; i < keys.size(); i++) {
+            sql.append(", CAST(").append(keys.get(i).expression()).append(" AS TEXT) AS sort_key_").append(i);
+        }
+        sql.append(FROM_SQL);
+        args.add(userId);
+
+        if (filter.rarity() != null) {
+            sql.append(" AND c.rarity_id = (SELECT r.id FROM card_rarities r WHERE r.name = ?)");
+            args.add(filter.rarity());
+        }
+        if (filter.setName() != null) {
+            sql.append(" AND c.set_name_id = (SELECT s.id FROM card_set_names s WHERE s.name = ?)");
+            args.add(filter.setName());
+        }
+        if (filter.condition() != null) {
+            sql.append(" AND cc.name = ?");
+            args.add(filter.condition());
+        }
+
+        if (after != null) {
+            StringBuilder columns = new StringBuilder();
+            StringBuilder values = new StringBuilder();
+            for (int i = 0; i < keys.size(); i++) {
+                columns.append(keys.get(i).expression()).append(", ");
+                values.append("CAST(? AS ").append(keys.get(i).type()).append("), ");
+                args.add(after.get(i));
+            }
+            sql.append(" AND (").append(columns).append("uc.id) ")
+                    .append(sort.isDescending() ? "<" : ">")
+                    .append(" (").append(values).append("CAST(? AS UUID))");
+            args.add(after.get(keys.size()));
+        }
+
+        sql.append(" ORDER BY ");
+        for (CollectionSort.Key key : keys) {
+            sql.append(key.expression()).append(direction).append(", ");
+        }
+        return sql.append("uc.id").append(direction).toString();
+    }
+
+    private static UserCardView mapView(ResultSet rs) throws SQLException {
+        return new UserCardView(
+                rs.getObject("id", UUID.class),
+                rs.getObject("user_id", UUID.class),
+                rs.getObject("card_id", UUID.class),
+                rs.getObject("quantity", Integer.class),
+                rs.getString("condition_name"),
+                rs.getBigDecimal("purchase_price"),
+                rs.getBigDecimal("current_value"),
+                rs.getObject("acquisition_date", LocalDate.class),
+                rs.getString("notes"),
+                rs.getObject("is_graded", Boolean.class),
+                rs.getString("grade_value"),
+                rs.getString("grading_company"),
+                rs.getObject("created_at", LocalDateTime.class),
+                rs.getObject("updated_at", LocalDateTime.class));
+    }
+}
@@ -0,0 +1,11 @@
+package com.cardvault.repository;
+
+import com.cardvault.model.UserCollectionSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface UserCollectionSummaryRepository extends JpaRepository<UserCollectionSummary, UUID> {
+}
@@ -0,0 +1,345 @@
+package com.cardvault.service;
+
+import com.cardvault.dto.PokemonCardDto;
+import com.cardvault.model.Card;
+import com.cardvault.repository.CardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolves Pokemon TCG api ids to local catalog cards, importing them from the upstream API on a miss.
+ * Concurrent misses for the same api id share a single upstream fetch and a single insert.
+ */
+@Service
+public class CardCatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CardCatalogService.class);
+    static final DateTimeFormatter API_DATE = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    private final CardRepository cardRepository;
+    private final PokemonTcgService pokemonTcgService;
+    private final CardNameIndex cardNameIndex;
+    private final CardFacetIndex cardFacetIndex;
+    private final CompactCardCatalog compactCardCatalog;
+    private final TransactionTemplate newTransaction;
+    private final Duration importMaxWait;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Card>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder localHits = new LongAdder();
+    // Single-card requests to the Pokemon TCG API, and card ids looked up there in batched queries
+    private final LongAdder upstreamFetches = new LongAdder();
+    private final LongAdder upstreamCardsFetched = new LongAdder();
+    private final LongAdder coalescedCallers = new LongAdder();
+    private final LongAdder coalescedTimeouts = new LongAdder();
+
+    @Autowired
+    public CardCatalogService(CardRepository cardRepository,
+                              PokemonTcgService pokemonTcgService,
+                              CardNameIndex cardNameIndex,
+                              CardFacetIndex cardFacetIndex,
+                              CompactCardCatalog compactCardCatalog,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${pokemon.catalog.import.max-wait:PT30S}") Duration importMaxWait) {
+        this.cardRepository = cardRepository;
+        this.pokemonTcgService = pokemonTcgService;
+        this.cardNameIndex = cardNameIndex;
+        this.cardFacetIndex = cardFacetIndex;
+        this.compactCardCatalog = compactCardCatalog;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.importMaxWait = importMaxWait;
+    }
+
+    /**
+     * Find the catalog card for an api id, importing it from the Pokemon TCG API if it is not stored yet.
+     * The import is committed in its own transaction so that callers waiting on the same id can
+     * reference the card as soon as it is returned.
+     * <p>
+     * Must be called outside a transaction: a waiter would otherwise block while holding a pooled
+     * connection, and the import's new transaction would need a second one, so a burst of waiters
+     * could use up the pool the import needs.
+     */
+    public Card findOrCreateByApiId(String apiId) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Card import must not run inside a transaction");
+        }
+        lookups.increment();
+        Optional<Card> existing = cardRepository.findByApiId(apiId);
+        if (existing.isPresent()) {
+            localHits.increment();
+            return existing.get();
+        }
+
+        CompletableFuture<Card> call = new CompletableFuture<>();
+        CompletableFuture<Card> leader = inFlight.putIfAbsent(apiId, call);
+        if (leader != null) {
+            coalescedCallers.increment();
+            return await(apiId, leader);
+        }
+
+        try {
+            Card card = importCard(apiId);
+            call.complete(card);
+            return card;
+        } catch (RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(apiId, call);
+        }
+    }
+
+    /**
+     * Find the catalog cards for many api ids at once, keyed by api id. Stored cards are read in chunks, and
+     * the rest are fetched from the Pokemon TCG API in batched queries and inserted with one batched upsert.
+     * Ids the API does not know are absent from the result.
+     */
+    public Map<String, Card> findOrCreateByApiIds(Collection<String> apiIds) {
+        Set<String> wanted = new LinkedHashSet<>(apiIds);
+        lookups.add(wanted.size());
+        Map<String, Card> cards = findStored(wanted);
+        localHits.add(cards.size());
+
+        List<String> missing = wanted.stream().filter(apiId -> !cards.containsKey(apiId)).toList();
+        if (missing.isEmpty()) {
+            return cards;
+        }
+        upstreamCardsFetched.add(missing.size());
+        // Keyed by the requested id, which may differ from the API's id in case or surrounding whitespace
+        Map<String, PokemonCardDto> fetched = pokemonTcgService.getCardsByIds(missing);
+        if (!fetched.isEmpty()) {
+            Map<String, Card> imported = new LinkedHashMap<>();
+            fetched.values().forEach(dto -> imported.putIfAbsent(dto.getId(), toCard(dto)));
+            cardRepository.upsertCatalog(new ArrayList<>(imported.values()), Map.of());
+            Map<String, Card> stored = findStored(imported.keySet());
+            for (Card card : stored.values()) {
+                cardNameIndex.add(card.getName());
+                compactCardCatalog.invalidate(card.getId());
+            }
+            cardFacetIndex.invalidate();
+            fetched.forEach((apiId, dto) -> {
+                Card card = stored.get(dto.getId());
+                if (card != null) {
+                    cards.put(apiId, card);
+                }
+            });
+        }
+        return cards;
+    }
+
+    private Map<String, Card> findStored(Collection<String> apiIds) {
+        List<String> ids = new ArrayList<>(apiIds);
+        Map<String, Card> cards = new HashMap<>();
+        for (int i = 0; i < ids.size(); i += LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = ids.subList(i, Math.min(i + LOOKUP_CHUNK_SIZE, ids.size()));
+            cardRepository.findByApiIdIn(chunk).forEach(card -> cards.put(card.getApiId(), card));
+        }
+        return cards;
+    }
+
+    private Card importCard(String apiId) {
+        // Another caller may have finished importing between our lookup and claiming the id
+        Optional<Card> existing = newTransaction.execute(status -> cardRepository.findByApiId(apiId));
+        if (existing != null && existing.isPresent()) {
+            return existing.get();
+        }
+
+        upstreamFetches.increment();
+        PokemonCardDto pokemonCard = pokemonTcgService.getCardById(apiId);
+        if (pokemonCard == null) {
+            throw new RuntimeException("Card not found in Pokemon TCG API: " + apiId);
+        }
+
+        try {
+            Card card = newTransaction.execute(status -> {
+                Card imported = toCard(pokemonCard);
+                cardRepository.assignLookupKeys(List.of(imported));
+                return cardRepository.saveAndFlush(imported);
+            });
+            cardNameIndex.add(pokemonCard.getName());
+            cardFacetIndex.invalidate();
+            compactCardCatalog.invalidate(card.getId());
+            return card;
+        } catch (DataIntegrityViolationException e) {
+            // Inserted concurrently by another application instance
+            logger.info("Card {} was imported concurrently, using existing row", apiId);
+            return newTransaction.execute(status -> cardRepository.findByApiId(apiId))
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private Card await(String apiId, CompletableFuture<Card> leader) {
+        try {
+            return leader.get(importMaxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            coalescedTimeouts.increment();
+            throw new RuntimeException("Timed out waiting for card " + apiId + " to be imported");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for card " + apiId + " to be imported");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public Card toCard(PokemonCardDto dto) {
+        Card card = new Card();
+        card.setApiId(dto.getId());
+        card.setName(dto.getName());
+        card.setSetId(dto.getSet() != null ? dto.getSet().getId() : null);
+        card.setSetName(dto.getSet() != null ? dto.getSet().getName() : null);
+        card.setSetSeries(dto.getSet() != null ? dto.getSet().getSeries() : null);
+        card.setCardNumber(dto.getNumber());
+        card.setRarity(dto.getRarity());
+        card.setCardType(dto.getTypes() != null && !dto.getTypes().isEmpty() ? dto.getTypes().get(0) : null);
+        card.setSupertype(dto.getSupertype());
+        card.setSubtypes(dto.getSubtypes() != null ? String.join(",", dto.getSubtypes()) : null);
+        card.setHp(parseHp(dto.getHp()));
+        card.setArtist(dto.getArtist());
+        card.setImageUrl(dto.getImages() != null ? dto.getImages().getLarge() : null);
+        card.setSmallImageUrl(dto.getImages() != null ? dto.getImages().getSmall() : null);
+
+        if (dto.getTcgplayer() != null && dto.getTcgplayer().getPrices() != null) {
+            BigDecimal marketPrice = extractMarketPrice(dto.getTcgplayer().getPrices());
+            card.setMarketPrice(marketPrice);
+        }
+        card.setPriceUpdatedAt(latestPriceUpdate(dto));
+
+        if (dto.getSet() != null) {
+            card.setReleaseDate(parseReleaseDate(dto.getSet().getReleaseDate()));
+        }
+
+        return card;
+    }
+
+    private LocalDate latestPriceUpdate(PokemonCardDto dto) {
+        return latestPriceUpdate(dto.getTcgplayer() != null ? dto.getTcgplayer().getUpdatedAt() : null,
+                dto.getCardmarket() != null ? dto.getCardmarket().getUpdatedAt() : null);
+    }
+
+    /**
+     * The most recent tcgplayer/cardmarket price stamp on the card, used as the incremental sync watermark.
+     */
+    static LocalDate latestPriceUpdate(String tcgplayerUpdatedAt, String cardmarketUpdatedAt) {
+        LocalDate tcgplayer = parseApiDate(tcgplayerUpdatedAt);
+        LocalDate cardmarket = parseApiDate(cardmarketUpdatedAt);
+        if (tcgplayer == null) {
+            return cardmarket;
+        }
+        return cardmarket != null && cardmarket.isAfter(tcgplayer) ? cardmarket : tcgplayer;
+    }
+
+    static Integer parseHp(String hp) {
+        if (hp == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(hp);
+        } catch (NumberFormatException e) {
+            logger.warn("Failed to parse HP value: {}", hp);
+            return null;
+        }
+    }
+
+    /**
+     * Set release dates come as "yyyy/MM/dd" from the API; ISO dates are accepted as well.
+     */
+    static LocalDate parseReleaseDate(String releaseDate) {
+        if (releaseDate == null) {
+            return null;
+        }
+        if (releaseDate.indexOf('/') < 0) {
+            try {
+                return LocalDate.parse(releaseDate);
+            } catch (DateTimeParseException e) {
+                logger.warn("Failed to parse release date: {}", releaseDate);
+                return null;
+            }
+        }
+        return parseApiDate(releaseDate);
+    }
+
+    /**
+     * Parse the API's "yyyy/MM/dd" date stamps, ignoring any time part.
+     */
+    static LocalDate parseApiDate(String value) {
+        if (value == null || value.length() < 10) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.substring(0, 10), API_DATE);
+        } catch (DateTimeParseException e) {
+            logger.warn("Failed to parse API date: {}", value);
+            return null;
+        }
+    }
+
+    private BigDecimal extractMarketPrice(PokemonCardDto.TcgPlayer.Prices prices) {
+        return marketPrice(
+                prices.getHolofoil() != null ? prices.getHolofoil().getMarket() : null,
+                prices.getReverseHolofoil() != null ? prices.getReverseHolofoil().getMarket() : null,
+                prices.getNormal() != null ? prices.getNormal().getMarket() : null);
+    }
+
+    /**
+     * Market price of the first printing that has one: holofoil, then reverse holofoil, then normal.
+     */
+    static BigDecimal marketPrice(Double holofoil, Double reverseHolofoil, Double normal) {
+        if (holofoil != null) {
+            return BigDecimal.valueOf(holofoil);
+        }
+        if (reverseHolofoil != null) {
+            return BigDecimal.valueOf(reverseHolofoil);
+        }
+        if (normal != null) {
+            return BigDecimal.valueOf(normal);
+        }
+        return BigDecimal.ZERO;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("lookups", lookups.sum());
+        stats.put("localHits", localHits.sum());
+        stats.put("upstreamFetches", upstreamFetches.sum());
+        stats.put("upstreamCardsFetched", upstreamCardsFetched.sum());
+        stats.put("coalescedCallers", coalescedCallers.sum());
+        stats.put("coalescedTimeouts", coalescedTimeouts.sum());
+        stats.put("inFlight", inFlight.size());
+        return stats;
+    }
+}
@@ -0,0 +1,226 @@
+package com.cardvault.service;
+
+import com.cardvault.dto.CardQueryResponse;
+import com.cardvault.repository.CardRepository;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory bitmap index over the filterable dimensions of the cards table: set name, rarity, type and
+ * supertype. Every card gets a row number, and each dimension value maps to a compressed Roaring bitmap of
+ * the rows holding it. Rows are numbered in set order, so set bitmaps collapse into a few runs.
+ * <p>
+ * A query ORs the selected values within a dimension and ANDs across dimensions. Facet counts for a
+ * dimension are taken against the filters on the other dimensions only, so the sidebar shows how many
+ * cards each alternative value would give.
+ * <p>
+ * Rebuilt at startup and after each catalog sync; local card edits queue a background rebuild.
+ */
+@Service
+public class CardFacetIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CardFacetIndex.class);
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    public static final String SET = "set";
+    public static final String RARITY = "rarity";
+    public static final String TYPE = "type";
+    public static final String SUPERTYPE = "supertype";
+    private static final List<String> DIMENSIONS = List.of(SET, RARITY, TYPE, SUPERTYPE);
+
+    private final CardRepository cardRepository;
+    private final TaskExecutor taskExecutor;
+
+    private volatile Snapshot snapshot = Snapshot.build(List.of());
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+
+    @Autowired
+    public CardFacetIndex(CardRepository cardRepository,
+                          @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.cardRepository = cardRepository;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        queueRebuild();
+    }
+
+    /**
+     * Rebuild the index from the cards table.
+     */
+    public synchronized void rebuild() {
+        Snapshot built = Snapshot.build(cardRepository.findFacetRows());
+        snapshot = built;
+        logger.info("Built card facet index: {} cards, {} bitmaps, {} bytes",
+                built.ids.length, built.bitmapCount(), built.sizeInBytes());
+    }
+
+    /**
+     * Schedule a rebuild after cards changed, once the current transaction (if any) commits. Requests made
+     * while one is queued share it.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    queueRebuild();
+                }
+            });
+        } else {
+            queueRebuild();
+        }
+    }
+
+    private void queueRebuild() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                rebuildQueued.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    logger.error("Failed to build card facet index: {}", e.getMessage(), e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Card ids matching every given dimension, plus per-value counts for each dimension. Dimensions
+     * without values are not filtered on.
+     */
+    public CardQueryResponse query(Map<String, List<String>> filters, int page, int size) {
+        Snapshot current = snapshot;
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = Math.max(page, 0);
+
+        Map<String, RoaringBitmap> selected = new LinkedHashMap<>();
+        for (String dimension : DIMENSIONS) {
+            List<String> values = filters.get(dimension);
+            if (values != null && !values.isEmpty()) {
+                Map<String, RoaringBitmap> byValue = current.bitmaps.get(dimension);
+                RoaringBitmap[] parts = values.stream()
+                        .map(value -> byValue.getOrDefault(value, new RoaringBitmap()))
+                        .toArray(RoaringBitmap[]::new);
+                selected.put(dimension, FastAggregation.or(parts));
+            }
+        }
+
+        RoaringBitmap matches = intersect(current, selected, null);
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        for (String dimension : DIMENSIONS) {
+            RoaringBitmap others = selected.containsKey(dimension)
+                    ? intersect(current, selected, dimension)
+                    : matches;
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            current.bitmaps.get(dimension).forEach((value, rows) -> {
+                int count = RoaringBitmap.andCardinality(rows, others);
+                if (count > 0) {
+                    counts.put(value, count);
+                }
+            });
+            facets.put(dimension, counts);
+        }
+
+        List<UUID> ids = new ArrayList<>(pageSize);
+        long offset = (long) pageNumber * pageSize;
+        if (offset < matches.getLongCardinality()) {
+            PeekableIntIterator rows = matches.getIntIterator();
+            rows.advanceIfNeeded(matches.select((int) offset));
+            while (rows.hasNext() && ids.size() < pageSize) {
+                ids.add(current.ids[rows.next()]);
+            }
+        }
+
+        CardQueryResponse response = new CardQueryResponse();
+        response.setIds(ids);
+        response.setPage(pageNumber);
+        response.setSize(pageSize);
+        response.setTotalCount(matches.getCardinality());
+        response.setFacets(facets);
+        return response;
+    }
+
+    /**
+     * AND of the selected dimensions except {@code skip}; every row if nothing is left.
+     */
+    private static RoaringBitmap intersect(Snapshot snapshot, Map<String, RoaringBitmap> selected, String skip) {
+        RoaringBitmap[] parts = selected.entrySet().stream()
+                .filter(entry -> !entry.getKey().equals(skip))
+                .map(Map.Entry::getValue)
+                .toArray(RoaringBitmap[]::new);
+        return parts.length == 0 ? snapshot.all : FastAggregation.and(parts);
+    }
+
+    private static final class Snapshot {
+        private final UUID[] ids;
+        private final RoaringBitmap all;
+        // Dimension -> value -> rows, values in alphabetical order
+        private final Map<String, Map<String, RoaringBitmap>> bitmaps;
+
+        private Snapshot(UUID[] ids, RoaringBitmap all, Map<String, Map<String, RoaringBitmap>> bitmaps) {
+            this.ids = ids;
+            this.all = all;
+            this.bitmaps = bitmaps;
+        }
+
+        /**
+         * Rows are {@code [id, set name, rarity, type, supertype]}.
+         */
+        static Snapshot build(List<Object[]> rows) {
+            UUID[] ids = new UUID[rows.size()];
+            Map<String, Map<String, RoaringBitmap>> bitmaps = new LinkedHashMap<>();
+            for (String dimension : DIMENSIONS) {
+                bitmaps.put(dimension, new TreeMap<>());
+            }
+
+            for (int row = 0; row < rows.size(); row++) {
+                Object[] values = rows.get(row);
+                ids[row] = (UUID) values[0];
+                for (int d = 0; d < DIMENSIONS.size(); d++) {
+                    String value = (String) values[d + 1];
+                    if (value != null) {
+                        // Rows arrive in increasing order, which Roaring appends cheaply
+                        bitmaps.get(DIMENSIONS.get(d)).computeIfAbsent(value, k -> new RoaringBitmap()).add(row);
+                    }
+                }
+            }
+            bitmaps.values().forEach(byValue -> byValue.values().forEach(RoaringBitmap::runOptimize));
+
+            RoaringBitmap all = new RoaringBitmap();
+            all.add(0L, ids.length);
+            return new Snapshot(ids, all, bitmaps);
+        }
+
+        int bitmapCount() {
+            return bitmaps.values().stream().mapToInt(Map::size).sum();
+        }
+
+        long sizeInBytes() {
+            return bitmaps.values().stream()
+                    .flatMap(byValue -> byValue.values().stream())
+                    .mapToLong(RoaringBitmap::getLongSizeInBytes)
+                    .sum();
+        }
+    }
+}
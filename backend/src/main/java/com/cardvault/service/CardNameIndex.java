@@ -0,0 +1,533 @@
+package com.cardvault.service;
+
+import com.cardvault.dto.CardSuggestionResponse;
+import com.cardvault.repository.CardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory typeahead index over distinct card names, so suggestions never touch the database.
+ * <p>
+ * A snapshot holds a sorted array of every word-start suffix of every name, which acts as a flattened
+ * prefix trie: a binary search finds all names with a word starting with the typed prefix. Names are
+ * also indexed by character trigram with sorted int posting lists, which serve infix matches ("zard"
+ * finds "Charizard") when prefix matches do not fill the result. Matches on the start of the name rank
+ * above matches on a later word, which rank above infix matches; ties go to the name with more cards.
+ * <p>
+ * Misspelled queries ("Charzard", "Mewtoo") are matched against the sorted distinct words of all names,
+ * walked as a flattened trie: edit distance rows are shared between words with a common prefix, and a
+ * prefix whose row already exceeds the allowed distance skips every word under it. The allowed distance
+ * grows with the word length. Every query word must match some
+ * word of a name, and names are ranked by total edit distance, then by how few extra words they carry.
+ * <p>
+ * The snapshot is rebuilt from the cards table at startup, after each catalog sync and after a card is
+ * renamed or deleted. Names added in between are kept in a small pending set that is scanned alongside
+ * it for suggestions.
+ */
+@Service
+public class CardNameIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CardNameIndex.class);
+    private static final int MAX_LIMIT = 50;
+    private static final int PENDING_REBUILD_THRESHOLD = 1000;
+
+    private static final int TIER_NAME_PREFIX = 3;
+    private static final int TIER_WORD_PREFIX = 2;
+    private static final int TIER_INFIX = 1;
+
+    // Words up to this length must match exactly, up to the next one edit is allowed, beyond that two
+    private static final int EXACT_WORD_LENGTH = 3;
+    private static final int ONE_EDIT_WORD_LENGTH = 6;
+
+    private final CardRepository cardRepository;
+    private final TaskExecutor taskExecutor;
+
+    private volatile Snapshot snapshot = Snapshot.build(List.of(), List.of());
+    private final Map<String, String> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+
+    @Autowired
+    public CardNameIndex(CardRepository cardRepository,
+                         @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.cardRepository = cardRepository;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        taskExecutor.execute(this::rebuildQuietly);
+    }
+
+    /**
+     * Rebuild the snapshot from the distinct card names in the database.
+     */
+    public synchronized void rebuild() {
+        List<String> names = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        for (Object[] row : cardRepository.countCardsByName()) {
+            if (row[0] != null) {
+                names.add((String) row[0]);
+                counts.add(((Number) row[1]).intValue());
+            }
+        }
+
+        Snapshot built = Snapshot.build(names, counts);
+        snapshot = built;
+        pending.keySet().removeIf(built::contains);
+        logger.info("Built card name index: {} names, {} word prefixes, {} trigrams, {} words",
+                built.names.length, built.suffixes.length, built.postings.size(), built.words.length);
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.error("Failed to build card name index: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Record a card name being stored, so it can be suggested before the next rebuild. Inside a
+     * transaction the name is only recorded once it commits, so a rollback leaves no suggestion behind.
+     */
+    public void add(String name) {
+        if (name == null || name.isBlank()) {
+            return;
+        }
+        afterCommit(() -> {
+            String key = normalize(name);
+            if (!snapshot.contains(key) && pending.putIfAbsent(key, name) == null
+                    && pending.size() >= PENDING_REBUILD_THRESHOLD) {
+                queueRebuild();
+            }
+        });
+    }
+
+    /**
+     * Schedule a rebuild after a card name was changed or removed, once the current transaction (if any)
+     * commits. The old name may still belong to other cards, so it cannot simply be dropped.
+     */
+    public void invalidate() {
+        afterCommit(this::queueRebuild);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void queueRebuild() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                rebuildQueued.set(false);
+                rebuildQuietly();
+            });
+        }
+    }
+
+    public List<CardSuggestionResponse> suggest(String prefix, int limit) {
+        String query = normalize(prefix == null ? "" : prefix);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Snapshot current = snapshot;
+
+        // Best tier per name id
+        Map<Integer, Integer> tiers = new HashMap<>();
+        current.collectPrefixMatches(query, tiers);
+        if (tiers.size() < max) {
+            current.collectInfixMatches(query, tiers);
+        }
+
+        List<CardSuggestionResponse> results = new ArrayList<>(tiers.size());
+        List<Integer> ranks = new ArrayList<>(tiers.size());
+        tiers.forEach((id, tier) -> {
+            results.add(new CardSuggestionResponse(current.names[id], current.counts[id]));
+            ranks.add(tier);
+        });
+        pending.forEach((key, name) -> {
+            int tier = tierOf(key, query);
+            if (tier > 0) {
+                results.add(new CardSuggestionResponse(name, 1));
+                ranks.add(tier);
+            }
+        });
+
+        Integer[] order = new Integer[results.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> -ranks.get(i))
+                .thenComparingInt(i -> -results.get(i).getCardCount())
+                .thenComparing(i -> results.get(i).getName()));
+
+        List<CardSuggestionResponse> top = new ArrayList<>(Math.min(max, order.length));
+        for (int i = 0; i < order.length && top.size() < max; i++) {
+            top.add(results.get(order[i]));
+        }
+        return top;
+    }
+
+    /**
+     * Names within a bounded edit distance of the query, word by word, best match first. Exact spellings
+     * are included with distance zero, so callers can merge the result with their own exact matches.
+     */
+    public List<CardSuggestionResponse> fuzzyMatch(String query, int limit) {
+        String normalized = normalize(query == null ? "" : query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Snapshot current = snapshot;
+        String[] words = normalized.split(" ");
+
+        // Sum of the best distance per query word, for names that matched every word so far
+        Map<Integer, Integer> distances = null;
+        for (String word : words) {
+            Map<Integer, Integer> matches = current.collectFuzzyMatches(word, maxEdits(word));
+            if (distances == null) {
+                distances = matches;
+            } else {
+                Map<Integer, Integer> merged = new HashMap<>();
+                for (Map.Entry<Integer, Integer> entry : distances.entrySet()) {
+                    Integer distance = matches.get(entry.getKey());
+                    if (distance != null) {
+                        merged.put(entry.getKey(), entry.getValue() + distance);
+                    }
+                }
+                distances = merged;
+            }
+            if (distances.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        Map<Integer, Integer> totals = distances;
+        Integer[] ids = totals.keySet().toArray(Integer[]::new);
+        Arrays.sort(ids, Comparator.<Integer>comparingInt(totals::get)
+                .thenComparingInt(id -> current.wordCounts[id] - words.length)
+                .thenComparingInt(id -> -current.counts[id])
+                .thenComparing(id -> current.names[id]));
+
+        List<CardSuggestionResponse> results = new ArrayList<>(Math.min(max, ids.length));
+        for (int i = 0; i < ids.length && results.size() < max; i++) {
+            results.add(new CardSuggestionResponse(current.names[ids[i]], current.counts[ids[i]]));
+        }
+        return results;
+    }
+
+    private static int maxEdits(String word) {
+        if (word.length() <= EXACT_WORD_LENGTH) {
+            return 0;
+        }
+        return word.length() <= ONE_EDIT_WORD_LENGTH ? 1 : 2;
+    }
+
+    static String normalize(String value) {
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static int tierOf(String key, String query) {
+        if (key.startsWith(query)) {
+            return TIER_NAME_PREFIX;
+        }
+        if (key.contains(" " + query)) {
+            return TIER_WORD_PREFIX;
+        }
+        return key.contains(query) ? TIER_INFIX : 0;
+    }
+
+    /**
+     * Trigram of three chars packed into a long.
+     */
+    private static long gram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    private static final class Snapshot {
+        private final String[] names;
+        private final String[] keys;
+        private final int[] counts;
+        private final Map<String, Integer> idByKey;
+        // Word-start suffixes of every key in sorted order, with the name id and the word's offset
+        private final String[] suffixes;
+        private final int[] suffixIds;
+        private final int[] suffixOffsets;
+        private final Map<Long, int[]> postings;
+        // Sorted distinct words of all keys, with the sorted ids of the names containing each
+        private final String[] words;
+        private final int[][] wordIds;
+        private final int maxWordLength;
+        private final int[] wordCounts;
+
+        private Snapshot(String[] names, String[] keys, int[] counts, Map<String, Integer> idByKey,
+                         String[] suffixes, int[] suffixIds, int[] suffixOffsets, Map<Long, int[]> postings,
+                         String[] words, int[][] wordIds, int[] wordCounts) {
+            this.names = names;
+            this.keys = keys;
+            this.counts = counts;
+            this.idByKey = idByKey;
+            this.suffixes = suffixes;
+            this.suffixIds = suffixIds;
+            this.suffixOffsets = suffixOffsets;
+            this.postings = postings;
+            this.words = words;
+            this.wordIds = wordIds;
+            this.maxWordLength = Arrays.stream(words).mapToInt(String::length).max().orElse(0);
+            this.wordCounts = wordCounts;
+        }
+
+        static Snapshot build(List<String> names, List<Integer> counts) {
+            // Names differing only in case or spacing collapse into one entry
+            Map<String, Integer> idByKey = new HashMap<>();
+            List<String> distinctNames = new ArrayList<>();
+            List<String> keys = new ArrayList<>();
+            List<Integer> distinctCounts = new ArrayList<>();
+            for (int i = 0; i < names.size(); i++) {
+                String key = normalize(names.get(i));
+                Integer id = idByKey.get(key);
+                if (id == null) {
+                    idByKey.put(key, keys.size());
+                    distinctNames.add(names.get(i));
+                    keys.add(key);
+                    distinctCounts.add(counts.get(i));
+                } else {
+                    distinctCounts.set(id, distinctCounts.get(id) + counts.get(i));
+                }
+            }
+
+            record Suffix(String text, int id, int offset) {
+            }
+            List<Suffix> suffixList = new ArrayList<>();
+            Map<Long, List<Integer>> gramLists = new HashMap<>();
+            Map<String, List<Integer>> wordLists = new HashMap<>();
+            int[] wordCounts = new int[keys.size()];
+            for (int id = 0; id < keys.size(); id++) {
+                String key = keys.get(id);
+                String[] words = key.split(" ");
+                wordCounts[id] = words.length;
+                for (String word : words) {
+                    List<Integer> list = wordLists.computeIfAbsent(word, k -> new ArrayList<>());
+                    if (list.isEmpty() || list.get(list.size() - 1) != id) {
+                        list.add(id);
+                    }
+                }
+                for (int i = 0; i < key.length(); i++) {
+                    if (i == 0 || key.charAt(i - 1) == ' ') {
+                        suffixList.add(new Suffix(key.substring(i), id, i));
+                    }
+                }
+                for (int i = 0; i + 3 <= key.length(); i++) {
+                    long g = gram(key, i);
+                    List<Integer> list = gramLists.computeIfAbsent(g, k -> new ArrayList<>());
+                    // Ids are visited in increasing order, so each list stays sorted; skip repeats within a name
+                    if (list.isEmpty() || list.get(list.size() - 1) != id) {
+                        list.add(id);
+                    }
+                }
+            }
+            suffixList.sort(Comparator.comparing(Suffix::text));
+
+            String[] suffixes = new String[suffixList.size()];
+            int[] suffixIds = new int[suffixList.size()];
+            int[] suffixOffsets = new int[suffixList.size()];
+            for (int i = 0; i < suffixes.length; i++) {
+                suffixes[i] = suffixList.get(i).text();
+                suffixIds[i] = suffixList.get(i).id();
+                suffixOffsets[i] = suffixList.get(i).offset();
+            }
+
+            Map<Long, int[]> postings = new HashMap<>(gramLists.size() * 2);
+            gramLists.forEach((g, list) -> postings.put(g, list.stream().mapToInt(Integer::intValue).toArray()));
+
+            String[] words = wordLists.keySet().stream().sorted().toArray(String[]::new);
+            int[][] wordIds = new int[words.length][];
+            for (int i = 0; i < words.length; i++) {
+                wordIds[i] = wordLists.get(words[i]).stream().mapToInt(Integer::intValue).toArray();
+            }
+
+            return new Snapshot(distinctNames.toArray(String[]::new), keys.toArray(String[]::new),
+                    distinctCounts.stream().mapToInt(Integer::intValue).toArray(), idByKey,
+                    suffixes, suffixIds, suffixOffsets, postings, words, wordIds, wordCounts);
+        }
+
+        boolean contains(String key) {
+            return idByKey.containsKey(key);
+        }
+
+        void collectPrefixMatches(String query, Map<Integer, Integer> tiers) {
+            int from = lowerBound(query);
+            for (int i = from; i < suffixes.length && suffixes[i].startsWith(query); i++) {
+                int tier = suffixOffsets[i] == 0 ? TIER_NAME_PREFIX : TIER_WORD_PREFIX;
+                tiers.merge(suffixIds[i], tier, Math::max);
+            }
+        }
+
+        void collectInfixMatches(String query, Map<Integer, Integer> tiers) {
+            if (query.length() < 3) {
+                return;
+            }
+            int[] candidates = null;
+            for (int i = 0; i + 3 <= query.length(); i++) {
+                int[] list = postings.get(gram(query, i));
+                if (list == null) {
+                    return;
+                }
+                candidates = candidates == null ? list : intersect(candidates, list);
+                if (candidates.length == 0) {
+                    return;
+                }
+            }
+            for (int id : candidates) {
+                // Trigrams can all match without the query being a substring
+                if (keys[id].contains(query)) {
+                    tiers.putIfAbsent(id, TIER_INFIX);
+                }
+            }
+        }
+
+        /**
+         * Best edit distance per name id over the names with a word within {@code maxEdits} of the given one.
+         */
+        Map<Integer, Integer> collectFuzzyMatches(String word, int maxEdits) {
+            Map<Integer, Integer> distances = new HashMap<>();
+            // rows[d] is the edit distance row of the first d chars of the current word against the query
+            int[][] rows = new int[maxWordLength + 1][word.length() + 1];
+            for (int j = 0; j <= word.length(); j++) {
+                rows[0][j] = j;
+            }
+            String previous = "";
+            int valid = 0;
+            int i = 0;
+            while (i < words.length) {
+                String candidate = words[i];
+                int depth = Math.min(valid, commonPrefix(previous, candidate));
+                boolean dead = false;
+                while (depth < candidate.length()) {
+                    depth++;
+                    if (!nextRow(rows[depth - 1], rows[depth], candidate.charAt(depth - 1), word, maxEdits)) {
+                        dead = true;
+                        break;
+                    }
+                }
+                previous = candidate;
+                if (dead) {
+                    // No word under this prefix can come back within range
+                    valid = depth - 1;
+                    i = prefixEnd(candidate, depth, i);
+                    continue;
+                }
+                valid = depth;
+                int distance = rows[depth][word.length()];
+                if (distance <= maxEdits) {
+                    for (int id : wordIds[i]) {
+                        distances.merge(id, distance, Math::min);
+                    }
+                }
+                i++;
+            }
+            return distances;
+        }
+
+        /**
+         * Fill {@code row} from {@code above} for one more char; false once every cell exceeds {@code maxEdits}.
+         */
+        private static boolean nextRow(int[] above, int[] row, char c, String word, int maxEdits) {
+            row[0] = above[0] + 1;
+            int min = row[0];
+            for (int j = 1; j <= word.length(); j++) {
+                int cost = word.charAt(j - 1) == c ? 0 : 1;
+                row[j] = Math.min(Math.min(row[j - 1] + 1, above[j] + 1), above[j - 1] + cost);
+                min = Math.min(min, row[j]);
+            }
+            return min <= maxEdits;
+        }
+
+        private static int commonPrefix(String a, String b) {
+            int n = Math.min(a.length(), b.length());
+            int i = 0;
+            while (i < n && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
+
+        /**
+         * Index of the first word after {@code from} that does not share the first {@code length} chars of
+         * {@code word}.
+         */
+        private int prefixEnd(String word, int length, int from) {
+            int low = from;
+            int high = words.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (words[mid].length() >= length && words[mid].regionMatches(0, word, 0, length)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int lowerBound(String query) {
+            int low = 0;
+            int high = suffixes.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (suffixes[mid].compareTo(query) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static int[] intersect(int[] a, int[] b) {
+            int[] out = new int[Math.min(a.length, b.length)];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    out[n++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }
+    }
+}
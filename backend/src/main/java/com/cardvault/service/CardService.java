@@ -1,46 +1,84 @@
 package com.cardvault.service;
 
+import com.cardvault.dto.CardQueryResponse;
+import com.cardvault.dto.CardSuggestionResponse;
 import com.cardvault.model.Card;
 import com.cardvault.repository.CardRepository;
+import com.cardvault.util.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 
 @Service
 @Transactional
 public class CardService {
 
+    private static final int FUZZY_NAME_LIMIT = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final CardRepository cardRepository;
+    private final CardNameIndex cardNameIndex;
+    private final CardFacetIndex cardFacetIndex;
+    private final CompactCardCatalog compactCardCatalog;
 
     @Autowired
-    public CardService(CardRepository cardRepository) {
+    public CardService(CardRepository cardRepository, CardNameIndex cardNameIndex, CardFacetIndex cardFacetIndex,
+                       CompactCardCatalog compactCardCatalog) {
         this.cardRepository = cardRepository;
+        this.cardNameIndex = cardNameIndex;
+        this.cardFacetIndex = cardFacetIndex;
+        this.compactCardCatalog = compactCardCatalog;
+    }
+
+    /**
+     * A page of cards and the cursor of the next page, or null if this is the last one.
+     */
+    public record CardPage(List<Card> cards, String nextCursor) {
     }
 
-    public List<Card> getAllCards() {
-        return cardRepository.findAll();
+    public CardPage getCards(String cursor, int size) {
+        int limit = pageLimit(size);
+        List<String> after = cursor == null ? null : PageCursor.decode(cursor, 2);
+        List<Card> rows = cardsInOrder(cardRepository.findIdPageOrderByName(
+                key(after, 0), afterId(after, 1), PageRequest.of(0, limit + 1)));
+        return page(rows, limit, card -> PageCursor.encode(card.getName(), card.getId().toString()));
     }
 
     public Optional<Card> getCardById(UUID id) {
-        return cardRepository.findById(id);
+        return compactCardCatalog.findById(id).or(() -> cardRepository.findById(id));
     }
 
     public Optional<Card> getCardByApiId(String apiId) {
-        return cardRepository.findByApiId(apiId);
+        return compactCardCatalog.findByApiId(apiId).or(() -> cardRepository.findByApiId(apiId));
     }
 
     public Card createCard(Card card) {
-        return cardRepository.save(card);
+        cardRepository.assignLookupKeys(List.of(card));
+        Card saved = cardRepository.save(card);
+        cardNameIndex.add(saved.getName());
+        cardFacetIndex.invalidate();
+        compactCardCatalog.invalidate(saved.getId());
+        return saved;
     }
 
     public Card updateCard(UUID id, Card cardDetails) {
         Card card = cardRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Card not found with id: " + id));
 
+        String previousName = card.getName();
         card.setName(cardDetails.getName());
         card.setSetName(cardDetails.getSetName());
         card.setSetSeries(cardDetails.getSetSeries());
@@ -55,8 +93,15 @@ public class CardService {
         card.setSmallImageUrl(cardDetails.getSmallImageUrl());
         card.setMarketPrice(cardDetails.getMarketPrice());
         card.setReleaseDate(cardDetails.getReleaseDate());
+        cardRepository.assignLookupKeys(List.of(card));
 
-        return cardRepository.save(card);
+        Card saved = cardRepository.save(card);
+        if (!Objects.equals(previousName, saved.getName())) {
+            cardNameIndex.invalidate();
+        }
+        cardFacetIndex.invalidate();
+        compactCardCatalog.invalidate(saved.getId());
+        return saved;
     }
 
     public void deleteCard(UUID id) {
@@ -64,30 +109,132 @@ public class CardService {
             throw new RuntimeException("Card not found with id: " + id);
         }
         cardRepository.deleteById(id);
+        cardNameIndex.invalidate();
+        cardFacetIndex.invalidate();
+        compactCardCatalog.invalidate(id);
     }
 
     public List<Card> searchCardsByName(String name) {
         return cardRepository.findByNameContainingIgnoreCase(name);
     }
 
+    public List<CardSuggestionResponse> suggestCardNames(String prefix, int limit) {
+        return cardNameIndex.suggest(prefix, limit);
+    }
+
+    public CardQueryResponse queryCards(Map<String, List<String>> filters, int page, int size) {
+        return cardFacetIndex.query(filters, page, size);
+    }
+
     public List<Card> getCardsBySetName(String setName) {
-        return cardRepository.findBySetName(setName);
+        return cardsInOrder(cardRepository.findIdsBySetName(setName));
     }
 
-    public List<Card> getCardsByRarity(String rarity) {
-        return cardRepository.findByRarity(rarity);
+    public CardPage getCardsByRarity(String rarity, String cursor, int size) {
+        int limit = pageLimit(size);
+        List<String> after = cursor == null ? null : PageCursor.decode(cursor, 2);
+        List<Card> rows = cardsInOrder(cardRepository.findIdPageByRarity(
+                rarity, key(after, 0), afterId(after, 1), PageRequest.of(0, limit + 1)));
+        return page(rows, limit, card -> PageCursor.encode(card.getName(), card.getId().toString()));
     }
 
     public List<Card> getCardsByType(String type) {
-        return cardRepository.findByCardType(type);
+        return cardsInOrder(cardRepository.findIdsByCardType(type));
+    }
+
+    /**
+     * Search by name, set name or rarity. With {@code fuzzy}, the first page is topped up with cards whose
+     * name is a close misspelling of the search term, ranked after the exact matches.
+     */
+    public CardPage searchCards(String searchTerm, String cursor, int size, boolean fuzzy) {
+        int limit = pageLimit(size);
+        String raw = searchTerm.trim();
+        // User input is matched literally, so escape the LIKE wildcards
+        String term = raw
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        List<String> after = cursor == null ? null : PageCursor.decode(cursor, 4);
+        List<Card> rows = cardsInOrder(cardRepository.searchCardIds(term, raw, key(after, 0), key(after, 1),
+                key(after, 2), afterId(after, 3), PageRequest.of(0, limit + 1)));
+        CardPage page = page(rows, limit, card -> PageCursor.encode(
+                card.getName(), card.getSetName(), card.getRarity(), card.getId().toString()));
+        if (!fuzzy || cursor != null || page.nextCursor() != null) {
+            return page;
+        }
+        return new CardPage(withFuzzyMatches(searchTerm, page.cards(), limit), null);
     }
 
-    public List<Card> searchCards(String searchTerm) {
-        return cardRepository.searchCards(searchTerm);
+    private List<Card> withFuzzyMatches(String searchTerm, List<Card> cards, int limit) {
+        List<String> names = cardNameIndex.fuzzyMatch(searchTerm, FUZZY_NAME_LIMIT).stream()
+                .map(CardSuggestionResponse::getName)
+                .toList();
+        if (names.isEmpty()) {
+            return cards;
+        }
+        Map<String, Integer> rank = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            rank.put(names.get(i), i);
+        }
+        Set<UUID> seen = new HashSet<>();
+        cards.forEach(card -> seen.add(card.getId()));
+
+        List<Card> merged = new ArrayList<>(cards);
+        cardRepository.findByNameIn(names).stream()
+                .filter(card -> seen.add(card.getId()))
+                .sorted(Comparator.comparingInt((Card card) -> rank.getOrDefault(card.getName(), names.size()))
+                        .thenComparing(Card::getApiId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .limit(limit - cards.size())
+                .forEach(merged::add);
+        return merged;
     }
 
-    public List<Card> getCardsBySetOrdered(String setName) {
-        return cardRepository.findBySetNameOrderByCardNumberAsc(setName);
+    public CardPage getCardsBySet(String setName, String cursor, int size) {
+        int limit = pageLimit(size);
+        List<String> after = cursor == null ? null : PageCursor.decode(cursor, 2);
+        List<Card> rows = cardsInOrder(cardRepository.findIdPageBySetName(
+                setName, key(after, 0), afterId(after, 1), PageRequest.of(0, limit + 1)));
+        return page(rows, limit, card -> PageCursor.encode(
+                card.getCardNumber() != null ? card.getCardNumber() : "", card.getId().toString()));
+    }
+
+    /**
+     * The cards with these ids, in the same order, from the compact catalog where it has them. Cards deleted
+     * since the ids were read are left out.
+     */
+    private List<Card> cardsInOrder(List<UUID> ids) {
+        Map<UUID, Card> cards = compactCardCatalog.findAllById(ids);
+        return ids.stream().map(cards::get).filter(Objects::nonNull).toList();
+    }
+
+    private static int pageLimit(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private static String key(List<String> after, int index) {
+        return after == null ? null : after.get(index);
+    }
+
+    private static String afterId(List<String> after, int index) {
+        if (after == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(after.get(index)).toString();
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new RuntimeException("Invalid page cursor");
+        }
+    }
+
+    /**
+     * Trim the one extra row fetched past the limit, which tells whether there is a next page.
+     */
+    private static CardPage page(List<Card> rows, int limit, Function<Card, String> cursorOf) {
+        if (rows.size() <= limit) {
+            return new CardPage(rows, null);
+        }
+        List<Card> cards = List.copyOf(rows.subList(0, limit));
+        return new CardPage(cards, cursorOf.apply(cards.get(limit - 1)));
     }
 
     public Card createOrUpdateCard(Card card) {
@@ -98,9 +245,15 @@ public class CardService {
                 existing.setMarketPrice(card.getMarketPrice());
                 existing.setImageUrl(card.getImageUrl());
                 existing.setSmallImageUrl(card.getSmallImageUrl());
+                compactCardCatalog.invalidate(existing.getId());
                 return cardRepository.save(existing);
             }
         }
-        return cardRepository.save(card);
+        cardRepository.assignLookupKeys(List.of(card));
+        Card saved = cardRepository.save(card);
+        cardNameIndex.add(saved.getName());
+        cardFacetIndex.invalidate();
+        compactCardCatalog.invalidate(saved.getId());
+        return saved;
     }
 }
@@ -0,0 +1,211 @@
+package com.cardvault.service;
+
+import com.cardvault.dto.CardSuggestionResponse;
+import com.cardvault.dto.PokemonCardDto;
+import com.cardvault.dto.PokemonCardResponse;
+import com.cardvault.model.CardDetail;
+import com.cardvault.repository.CardDetailRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves Pokemon card browse and search requests from the locally mirrored catalog,
+ * falling back to the Pokemon TCG API when the mirror has not been synced yet, the card is
+ * unknown locally, or the query uses syntax the mirror cannot evaluate. A name search with no hits is
+ * retried with the closest name from the {@link CardNameIndex}.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CatalogMirrorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogMirrorService.class);
+    private static final int MAX_PAGE_SIZE = 250;
+
+    // field:value or field:"quoted value" terms, the subset of the upstream query syntax the mirror supports
+    private static final Pattern QUERY_TERM =
+            Pattern.compile("(name|types|rarity|set\\.id|supertype):(\"[^\"]*\"|[^\\s,\"]+)", Pattern.CASE_INSENSITIVE);
+
+    private final CardDetailRepository cardDetailRepository;
+    private final PokemonTcgService pokemonTcgService;
+    private final ObjectMapper objectMapper;
+    private final CardNameIndex cardNameIndex;
+
+    private volatile boolean ready;
+
+    @Autowired
+    public CatalogMirrorService(CardDetailRepository cardDetailRepository,
+                                PokemonTcgService pokemonTcgService,
+                                ObjectMapper objectMapper,
+                                CardNameIndex cardNameIndex) {
+        this.cardDetailRepository = cardDetailRepository;
+        this.pokemonTcgService = pokemonTcgService;
+        this.objectMapper = objectMapper;
+        this.cardNameIndex = cardNameIndex;
+    }
+
+    /**
+     * Whether the mirror holds a synced catalog. Checked against the database until the first positive
+     * answer, after which it stays true.
+     */
+    public boolean isReady() {
+        if (!ready && cardDetailRepository.count() > 0) {
+            ready = true;
+        }
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    public CompletableFuture<PokemonCardResponse> searchCards(String query, int page, int pageSize) {
+        Optional<CatalogFilter> filter = parseQuery(query);
+        if (filter.isPresent() && isReady()) {
+            return CompletableFuture.completedFuture(search(filter.get(), page, pageSize));
+        }
+        return pokemonTcgService.searchCardsAsync(query, page, pageSize);
+    }
+
+    public CompletableFuture<PokemonCardDto> getCardById(String apiId) {
+        if (isReady()) {
+            Optional<PokemonCardDto> card = cardDetailRepository.findById(apiId).map(this::toDto);
+            if (card.isPresent()) {
+                return CompletableFuture.completedFuture(card.get());
+            }
+        }
+        return pokemonTcgService.getCardByIdAsync(apiId);
+    }
+
+    public CompletableFuture<PokemonCardResponse> searchCardsByName(String name, int page, int pageSize) {
+        if (isReady()) {
+            PokemonCardResponse response =
+                    search(new CatalogFilter(namePattern(name), null, null, null, null), page, pageSize);
+            if (response.getTotalCount() == 0) {
+                // Probably a misspelling, so retry with the closest known name
+                Optional<String> corrected = cardNameIndex.fuzzyMatch(name.replace("*", ""), 1).stream()
+                        .map(CardSuggestionResponse::getName)
+                        .findFirst();
+                if (corrected.isPresent()) {
+                    response = search(new CatalogFilter(namePattern(corrected.get()), null, null, null, null),
+                            page, pageSize);
+                }
+            }
+            return CompletableFuture.completedFuture(response);
+        }
+        return pokemonTcgService.searchCardsByNameAsync(name, page, pageSize);
+    }
+
+    public CompletableFuture<PokemonCardResponse> getCardsBySet(String setId, int page, int pageSize) {
+        if (isReady()) {
+            return CompletableFuture.completedFuture(
+                    search(new CatalogFilter(null, setId, null, null, null), page, pageSize));
+        }
+        return pokemonTcgService.getCardsBySetAsync(setId, page, pageSize);
+    }
+
+    public CompletableFuture<PokemonCardResponse> getCardsByType(String type, int page, int pageSize) {
+        if (isReady()) {
+            return CompletableFuture.completedFuture(
+                    search(new CatalogFilter(null, null, type, null, null), page, pageSize));
+        }
+        return pokemonTcgService.getCardsByTypeAsync(type, page, pageSize);
+    }
+
+    public CompletableFuture<PokemonCardResponse> getCardsByRarity(String rarity, int page, int pageSize) {
+        if (isReady()) {
+            return CompletableFuture.completedFuture(
+                    search(new CatalogFilter(null, null, null, rarity, null), page, pageSize));
+        }
+        return pokemonTcgService.getCardsByRarityAsync(rarity, page, pageSize);
+    }
+
+    private PokemonCardResponse search(CatalogFilter filter, int page, int pageSize) {
+        int size = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        Page<CardDetail> result = cardDetailRepository.searchCatalog(
+                filter.namePattern(), filter.setId(), filter.type(), filter.rarity(), filter.supertype(),
+                PageRequest.of(Math.max(page, 1) - 1, size));
+
+        List<PokemonCardDto> cards = result.getContent().stream()
+                .map(this::toDto)
+                .toList();
+
+        PokemonCardResponse response = new PokemonCardResponse();
+        response.setData(cards);
+        response.setPage(Math.max(page, 1));
+        response.setPageSize(size);
+        response.setCount(cards.size());
+        response.setTotalCount((int) result.getTotalElements());
+        return response;
+    }
+
+    /**
+     * Translate an upstream style query into a mirror filter. Returns empty if the query contains
+     * anything besides supported field:value terms.
+     */
+    static Optional<CatalogFilter> parseQuery(String query) {
+        if (query == null || query.isBlank()) {
+            return Optional.of(new CatalogFilter(null, null, null, null, null));
+        }
+
+        String name = null;
+        String setId = null;
+        String type = null;
+        String rarity = null;
+        String supertype = null;
+
+        Matcher matcher = QUERY_TERM.matcher(query);
+        StringBuilder remainder = new StringBuilder();
+        int last = 0;
+        while (matcher.find()) {
+            remainder.append(query, last, matcher.start());
+            last = matcher.end();
+
+            String value = matcher.group(2).replace("\"", "");
+            switch (matcher.group(1).toLowerCase()) {
+                case "name" -> name = namePattern(value);
+                case "types" -> type = value;
+                case "rarity" -> rarity = value;
+                case "set.id" -> setId = value;
+                case "supertype" -> supertype = value;
+                default -> {
+                    return Optional.empty();
+                }
+            }
+        }
+        remainder.append(query.substring(last));
+
+        if (!remainder.toString().replace(",", " ").isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.of(new CatalogFilter(name, setId, type, rarity, supertype));
+    }
+
+    private static String namePattern(String name) {
+        return "%" + name.replace("*", "").trim() + "%";
+    }
+
+    private PokemonCardDto toDto(CardDetail detail) {
+        try {
+            return objectMapper.readValue(detail.getData(), PokemonCardDto.class);
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to read mirrored card {}: {}", detail.getApiId(), e.getMessage());
+            throw new RuntimeException("Failed to read mirrored card " + detail.getApiId(), e);
+        }
+    }
+
+    record CatalogFilter(String namePattern, String setId, String type, String rarity, String supertype) {
+    }
+}
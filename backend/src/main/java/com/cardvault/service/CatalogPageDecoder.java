@@ -0,0 +1,215 @@
+package com.cardvault.service;
+
+import com.cardvault.model.Card;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming decoder for Pokemon TCG API card pages on the catalog ingest path.
+ * Each card is read token by token in a single pass: the columns stored in the cards table are picked
+ * out as they go by, and the card's JSON is copied verbatim for card_details. No PokemonCardDto graph is
+ * built and nothing is serialized twice.
+ */
+@Component
+public class CatalogPageDecoder {
+
+    // Objects and arrays on the way to a field the cards table needs
+    private static final Set<String> TRACKED_CONTAINERS = Set.of("", "subtypes", "types", "set", "images",
+            "tcgplayer", "tcgplayer.prices", "tcgplayer.prices.holofoil", "tcgplayer.prices.reverseHolofoil",
+            "tcgplayer.prices.normal", "cardmarket");
+
+    private final JsonFactory jsonFactory;
+
+    public CatalogPageDecoder(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public record CatalogPage(List<Card> cards, Map<String, String> detailJsonByApiId, int count, int totalCount) {
+    }
+
+    /**
+     * Decode a {@code {"data": [...], "totalCount": n, ...}} page. Cards without an id or name are skipped
+     * but still counted, matching the upstream page size.
+     */
+    public CatalogPage decode(InputStream body) throws IOException {
+        List<Card> cards = new ArrayList<>();
+        Map<String, String> details = new LinkedHashMap<>();
+        int count = 0;
+        int totalCount = 0;
+        // One buffer for the whole page, reset per card, so it only grows until it fits the largest card
+        StringWriter json = new StringWriter(8192);
+
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new RuntimeException("Unexpected Pokemon TCG API response: expected an object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("data".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        count++;
+                        CardFields card = new CardFields();
+                        String detailJson = copyCard(parser, card, json);
+                        if (card.apiId != null && card.name != null) {
+                            cards.add(card.toCard());
+                            details.put(card.apiId, detailJson);
+                        }
+                    }
+                } else if ("totalCount".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                    totalCount = parser.getIntValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // Not an I/O failure, so keep it from being retried as one
+            throw new RuntimeException("Failed to decode Pokemon TCG API card page: " + e.getOriginalMessage(), e);
+        }
+        return new CatalogPage(cards, details, count, totalCount);
+    }
+
+    private String copyCard(JsonParser parser, CardFields card, StringWriter json) throws IOException {
+        json.getBuffer().setLength(0);
+        try (JsonGenerator generator = jsonFactory.createGenerator(json)) {
+            copy(parser, generator, "", card);
+        }
+        return json.toString();
+    }
+
+    /**
+     * Copy the value at the parser's current token to the generator, recording the fields the cards
+     * table needs. Paths are dotted field names with {@code []} for array elements. Containers holding
+     * none of those fields (attacks, legalities, cardmarket prices...) are copied wholesale without
+     * tracking paths.
+     */
+    private void copy(JsonParser parser, JsonGenerator generator, String path, CardFields card) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token.isStructStart() && !TRACKED_CONTAINERS.contains(path)) {
+            generator.copyCurrentStructure(parser);
+        } else if (token == JsonToken.START_OBJECT) {
+            generator.writeStartObject();
+            if ("tcgplayer.prices".equals(path)) {
+                card.hasPrices = true;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                generator.writeFieldName(name);
+                parser.nextToken();
+                copy(parser, generator, path.isEmpty() ? name : path + "." + name, card);
+            }
+            generator.writeEndObject();
+        } else if (token == JsonToken.START_ARRAY) {
+            generator.writeStartArray();
+            if ("subtypes".equals(path)) {
+                card.subtypes = new ArrayList<>(2);
+            }
+            String elementPath = path + "[]";
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                copy(parser, generator, elementPath, card);
+            }
+            generator.writeEndArray();
+        } else {
+            generator.copyCurrentEvent(parser);
+            if (token != JsonToken.VALUE_NULL) {
+                card.accept(path, parser);
+            }
+        }
+    }
+
+    private static class CardFields {
+        private String apiId;
+        private String name;
+        private String supertype;
+        private List<String> subtypes;
+        private String hp;
+        private String firstType;
+        private String number;
+        private String artist;
+        private String rarity;
+        private String setId;
+        private String setName;
+        private String setSeries;
+        private String releaseDate;
+        private String smallImageUrl;
+        private String imageUrl;
+        private boolean hasPrices;
+        private Double holofoilMarket;
+        private Double reverseHolofoilMarket;
+        private Double normalMarket;
+        private String tcgplayerUpdatedAt;
+        private String cardmarketUpdatedAt;
+
+        void accept(String path, JsonParser parser) throws IOException {
+            switch (path) {
+                case "id" -> apiId = parser.getValueAsString();
+                case "name" -> name = parser.getValueAsString();
+                case "supertype" -> supertype = parser.getValueAsString();
+                case "subtypes[]" -> subtypes.add(parser.getValueAsString());
+                case "hp" -> hp = parser.getValueAsString();
+                case "types[]" -> {
+                    if (firstType == null) {
+                        firstType = parser.getValueAsString();
+                    }
+                }
+                case "number" -> number = parser.getValueAsString();
+                case "artist" -> artist = parser.getValueAsString();
+                case "rarity" -> rarity = parser.getValueAsString();
+                case "set.id" -> setId = parser.getValueAsString();
+                case "set.name" -> setName = parser.getValueAsString();
+                case "set.series" -> setSeries = parser.getValueAsString();
+                case "set.releaseDate" -> releaseDate = parser.getValueAsString();
+                case "images.small" -> smallImageUrl = parser.getValueAsString();
+                case "images.large" -> imageUrl = parser.getValueAsString();
+                case "tcgplayer.updatedAt" -> tcgplayerUpdatedAt = parser.getValueAsString();
+                case "tcgplayer.prices.holofoil.market" -> holofoilMarket = parser.getValueAsDouble();
+                case "tcgplayer.prices.reverseHolofoil.market" -> reverseHolofoilMarket = parser.getValueAsDouble();
+                case "tcgplayer.prices.normal.market" -> normalMarket = parser.getValueAsDouble();
+                case "cardmarket.updatedAt" -> cardmarketUpdatedAt = parser.getValueAsString();
+                default -> {
+                }
+            }
+        }
+
+        /**
+         * Same mapping as {@link CardCatalogService#toCard}.
+         */
+        Card toCard() {
+            Card card = new Card();
+            card.setApiId(apiId);
+            card.setName(name);
+            card.setSetId(setId);
+            card.setSetName(setName);
+            card.setSetSeries(setSeries);
+            card.setCardNumber(number);
+            card.setRarity(rarity);
+            card.setCardType(firstType);
+            card.setSupertype(supertype);
+            card.setSubtypes(subtypes != null ? String.join(",", subtypes) : null);
+            card.setHp(CardCatalogService.parseHp(hp));
+            card.setArtist(artist);
+            card.setImageUrl(imageUrl);
+            card.setSmallImageUrl(smallImageUrl);
+            if (hasPrices) {
+                card.setMarketPrice(CardCatalogService.marketPrice(holofoilMarket, reverseHolofoilMarket, normalMarket));
+            }
+            card.setPriceUpdatedAt(CardCatalogService.latestPriceUpdate(tcgplayerUpdatedAt, cardmarketUpdatedAt));
+            card.setReleaseDate(CardCatalogService.parseReleaseDate(releaseDate));
+            return card;
+        }
+    }
+}
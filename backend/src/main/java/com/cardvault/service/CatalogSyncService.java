@@ -0,0 +1,281 @@
+package com.cardvault.service;
+
+import com.cardvault.dto.PokemonSetDto;
+import com.cardvault.dto.PokemonSetResponse;
+import com.cardvault.model.CatalogSet;
+import com.cardvault.repository.CardRepository;
+import com.cardvault.repository.CatalogSetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Copies the Pokemon TCG API card catalog into the local cards, card_details and card_sets tables.
+ * A full sync pages through every card. An incremental sync re-fetches only the sets whose updatedAt
+ * stamp moved past the stored watermark, plus once a day the sets holding collected cards, to refresh
+ * their prices. Prices of cards nobody collects are only refreshed by a set change or a full sync.
+ */
+@Service
+public class CatalogSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSyncService.class);
+    private static final int PAGE_SIZE = 250;
+    private static final DateTimeFormatter SET_UPDATED_AT = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");
+
+    private final PokemonTcgService pokemonTcgService;
+    private final CatalogMirrorService catalogMirrorService;
+    private final CardRepository cardRepository;
+    private final CatalogSetRepository catalogSetRepository;
+    private final SetIndexService setIndexService;
+    private final CardNameIndex cardNameIndex;
+    private final CardFacetIndex cardFacetIndex;
+    private final CompactCardCatalog compactCardCatalog;
+    private final TaskExecutor taskExecutor;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile String lastMode;
+    private volatile LocalDateTime lastStartedAt;
+    private volatile LocalDateTime lastFinishedAt;
+    private volatile int lastCardCount;
+    private volatile int lastSetCount;
+    private volatile String lastError;
+
+    @Autowired
+    public CatalogSyncService(PokemonTcgService pokemonTcgService,
+                              CatalogMirrorService catalogMirrorService,
+                              CardRepository cardRepository,
+                              CatalogSetRepository catalogSetRepository,
+                              SetIndexService setIndexService,
+                              CardNameIndex cardNameIndex,
+                              CardFacetIndex cardFacetIndex,
+                              CompactCardCatalog compactCardCatalog,
+                              @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.pokemonTcgService = pokemonTcgService;
+        this.catalogMirrorService = catalogMirrorService;
+        this.cardRepository = cardRepository;
+        this.catalogSetRepository = catalogSetRepository;
+        this.setIndexService = setIndexService;
+        this.cardNameIndex = cardNameIndex;
+        this.cardFacetIndex = cardFacetIndex;
+        this.compactCardCatalog = compactCardCatalog;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @Scheduled(cron = "${pokemon.catalog.sync.cron:-}")
+    public void scheduledFullSync() {
+        runFullSync();
+    }
+
+    @Scheduled(cron = "${pokemon.catalog.sync.incremental-cron:-}")
+    public void scheduledIncrementalSync() {
+        runIncrementalSync();
+    }
+
+    /**
+     * Start a full sync in the background. Returns false if a sync is already running.
+     */
+    public boolean startFullSync() {
+        if (running.get()) {
+            return false;
+        }
+        taskExecutor.execute(this::runFullSync);
+        return true;
+    }
+
+    /**
+     * Start an incremental sync in the background. Returns false if a sync is already running.
+     */
+    public boolean startIncrementalSync() {
+        if (running.get()) {
+            return false;
+        }
+        taskExecutor.execute(this::runIncrementalSync);
+        return true;
+    }
+
+    /**
+     * Page through every card in the upstream catalog and upsert it locally, one batch per page.
+     * Every set is marked as synced at its current updatedAt stamp afterwards.
+     */
+    public void runFullSync() {
+        runExclusive("full", () -> {
+            LocalDateTime startedAt = LocalDateTime.now();
+            List<CatalogSet> sets = syncSets();
+            int synced = syncCards(null);
+            for (CatalogSet set : sets) {
+                set.setSyncedUpdatedAt(set.getUpdatedAt());
+                set.setSyncedAt(startedAt);
+                set.setPricesSyncedAt(startedAt.toLocalDate());
+            }
+            catalogSetRepository.saveAll(sets);
+            return synced;
+        });
+    }
+
+    /**
+     * Re-sync the cards of sets whose updatedAt stamp differs from their watermark, and of sets holding
+     * collected cards whose prices were not refreshed yet today. The set is the unit of change: upstream
+     * re-stamps the prices of nearly every card daily, so querying cards by price stamp would re-fetch
+     * the whole catalog each night.
+     */
+    public void runIncrementalSync() {
+        runExclusive("incremental", () -> {
+            LocalDate today = LocalDate.now();
+            Set<String> collected = new HashSet<>(catalogSetRepository.findCollectedSetIds());
+            int synced = 0;
+            for (CatalogSet set : syncSets()) {
+                boolean changed = set.getUpdatedAt() == null || !set.getUpdatedAt().equals(set.getSyncedUpdatedAt());
+                boolean pricesDue = collected.contains(set.getId())
+                        && (set.getPricesSyncedAt() == null || set.getPricesSyncedAt().isBefore(today));
+                if (!changed && !pricesDue) {
+                    continue;
+                }
+                if (changed) {
+                    logger.info("Set {} changed since last sync, re-syncing its cards", set.getId());
+                } else {
+                    logger.info("Refreshing prices of collected set {}", set.getId());
+                }
+                synced += syncCards("set.id:" + set.getId());
+                set.setSyncedUpdatedAt(set.getUpdatedAt());
+                set.setSyncedAt(LocalDateTime.now());
+                set.setPricesSyncedAt(today);
+                catalogSetRepository.save(set);
+            }
+            return synced;
+        });
+    }
+
+    private void runExclusive(String mode, Supplier<Integer> sync) {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Catalog sync already running, skipping {} sync", mode);
+            return;
+        }
+
+        lastMode = mode;
+        lastStartedAt = LocalDateTime.now();
+        lastError = null;
+        try {
+            logger.info("Starting {} catalog sync", mode);
+            int synced = sync.get();
+            lastCardCount = synced;
+            catalogMirrorService.markReady();
+            setIndexService.refresh();
+            cardNameIndex.rebuild();
+            cardFacetIndex.rebuild();
+            compactCardCatalog.rebuild();
+            logger.info("Finished {} catalog sync: {} cards", mode, synced);
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            logger.error("{} catalog sync failed: {}", mode, e.getMessage(), e);
+        } finally {
+            lastFinishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    /**
+     * Fetch every set and store its metadata, keeping the existing sync watermarks.
+     */
+    private List<CatalogSet> syncSets() {
+        Map<String, CatalogSet> existing = new LinkedHashMap<>();
+        catalogSetRepository.findAll().forEach(set -> existing.put(set.getId(), set));
+
+        List<CatalogSet> sets = new ArrayList<>();
+        int page = 1;
+        int totalCount;
+        do {
+            PokemonSetResponse response = pokemonTcgService.fetchSets(page, PAGE_SIZE);
+            if (response == null || response.getData() == null || response.getData().isEmpty()) {
+                break;
+            }
+            for (PokemonSetDto dto : response.getData()) {
+                if (dto.getId() == null || dto.getName() == null) {
+                    continue;
+                }
+                CatalogSet set = existing.getOrDefault(dto.getId(), new CatalogSet());
+                set.setId(dto.getId());
+                set.setName(dto.getName());
+                set.setSeries(dto.getSeries());
+                set.setPrintedTotal(dto.getPrintedTotal());
+                set.setTotal(dto.getTotal());
+                set.setPtcgoCode(dto.getPtcgoCode());
+                set.setReleaseDate(CardCatalogService.parseApiDate(dto.getReleaseDate()));
+                set.setSymbolUrl(dto.getImages() != null ? dto.getImages().getSymbol() : null);
+                set.setLogoUrl(dto.getImages() != null ? dto.getImages().getLogo() : null);
+                set.setLegalityUnlimited(dto.getLegalities() != null ? dto.getLegalities().getUnlimited() : null);
+                set.setLegalityStandard(dto.getLegalities() != null ? dto.getLegalities().getStandard() : null);
+                set.setLegalityExpanded(dto.getLegalities() != null ? dto.getLegalities().getExpanded() : null);
+                set.setUpdatedAt(parseSetUpdatedAt(dto.getUpdatedAt()));
+                sets.add(set);
+            }
+            totalCount = response.getTotalCount();
+            page++;
+        } while (sets.size() < totalCount);
+
+        lastSetCount = sets.size();
+        return catalogSetRepository.saveAll(sets);
+    }
+
+    /**
+     * Page through the cards matching the query (all cards when null) and upsert them.
+     */
+    private int syncCards(String query) {
+        int synced = 0;
+        int page = 1;
+        int totalCount;
+        do {
+            CatalogPageDecoder.CatalogPage response = pokemonTcgService.fetchCatalogPage(query, page, PAGE_SIZE);
+            if (response.count() == 0) {
+                break;
+            }
+            cardRepository.upsertCatalog(response.cards(), response.detailJsonByApiId());
+            synced += response.count();
+            totalCount = response.totalCount();
+            logger.info("Catalog sync page {}: {} of {} cards", page, synced, totalCount);
+            page++;
+        } while (synced < totalCount);
+        return synced;
+    }
+
+    private LocalDateTime parseSetUpdatedAt(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value, SET_UPDATED_AT);
+        } catch (DateTimeParseException e) {
+            logger.warn("Failed to parse set updatedAt: {}", value);
+            return null;
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("mirrorReady", catalogMirrorService.isReady());
+        status.put("lastMode", lastMode);
+        status.put("lastStartedAt", lastStartedAt);
+        status.put("lastFinishedAt", lastFinishedAt);
+        status.put("lastCardCount", lastCardCount);
+        status.put("lastSetCount", lastSetCount);
+        status.put("lastError", lastError);
+        return status;
+    }
+}
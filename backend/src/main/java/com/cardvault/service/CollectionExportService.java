@@ -0,0 +1,145 @@
+package com.cardvault.service;
+
+import com.cardvault.dto.UserCardDto;
+import com.cardvault.model.Card;
+import com.cardvault.util.CsvWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a user's whole collection as a gzipped NDJSON or CSV backup. Rows come from a database cursor and
+ * are compressed as they are written, so memory use does not depend on the size of the collection.
+ */
+@Service
+public class CollectionExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Column order of the CSV export, which the collection import also reads
+    public static final String[] CSV_HEADER = {
+            "card_api_id", "card_name", "set_name", "card_number", "rarity", "quantity", "condition",
+            "purchase_price", "current_value", "acquisition_date", "is_graded", "grade_value", "grading_company",
+            "notes", "market_price", "created_at"
+    };
+
+    public enum Format {
+        NDJSON("ndjson"),
+        CSV("csv");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format fromParam(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unknown export format: " + value);
+            }
+        }
+    }
+
+    private final UserCardService userCardService;
+    private final ObjectMapper objectMapper;
+    private final Semaphore running;
+
+    @Autowired
+    public CollectionExportService(UserCardService userCardService, ObjectMapper objectMapper,
+                                   @Value("${cardvault.collection.export-max-concurrent:4}") int maxConcurrent) {
+        this.userCardService = userCardService;
+        this.objectMapper = objectMapper;
+        this.running = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * One of the concurrent export slots. Closing it more than once gives it back only once.
+     */
+    public final class ExportSlot implements AutoCloseable {
+        private final AtomicBoolean open = new AtomicBoolean(true);
+
+        @Override
+        public void close() {
+            if (open.compareAndSet(true, false)) {
+                running.release();
+            }
+        }
+    }
+
+    /**
+     * Claim one of the concurrent export slots, or empty if all are taken. A slow download keeps its slot,
+     * and a request thread, for as long as it runs, so the number of exports is capped.
+     */
+    public Optional<ExportSlot> tryStartExport() {
+        return running.tryAcquire() ? Optional.of(new ExportSlot()) : Optional.empty();
+    }
+
+    public void export(UUID userId, Format format, OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == Format.NDJSON) {
+            writeNdjson(userId, writer);
+        } else {
+            writeCsv(userId, writer);
+        }
+        writer.flush();
+        gzip.finish();
+    }
+
+    private void writeNdjson(UUID userId, Writer writer) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.setRootValueSeparator(new SerializedString("\n"));
+        ObjectWriter rowWriter = objectMapper.writerFor(UserCardDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        boolean[] empty = {true};
+        userCardService.streamCollection(userId, (view, card) -> {
+            try {
+                rowWriter.writeValue(generator, UserCardDto.fromView(view, card));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            empty[0] = false;
+        });
+        if (!empty[0]) {
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+    }
+
+    private void writeCsv(UUID userId, Writer writer) {
+        CsvWriter csv = new CsvWriter(writer);
+        csv.writeRow((Object[]) CSV_HEADER);
+        userCardService.streamCollection(userId, (view, card) -> {
+            Card c = card != null ? card : new Card();
+            csv.writeRow(c.getApiId(), c.getName(), c.getSetName(), c.getCardNumber(), c.getRarity(),
+                    view.quantity(), view.condition(), view.purchasePrice(), view.currentValue(),
+                    view.acquisitionDate(), view.isGraded(), view.gradeValue(), view.gradingCompany(),
+                    view.notes(), c.getMarketPrice(), view.createdAt());
+        });
+    }
+}
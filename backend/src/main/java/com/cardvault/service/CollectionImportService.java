@@ -0,0 +1,319 @@
+package com.cardvault.service;
+
+import com.cardvault.dto.CollectionImportResponse;
+import com.cardvault.model.Card;
+import com.cardvault.model.CardCondition;
+import com.cardvault.repository.CardConditionRepository;
+import com.cardvault.repository.UserCardRepository;
+import com.cardvault.repository.UserCardRepositoryCustom.ImportResult;
+import com.cardvault.repository.UserCardRepositoryCustom.ImportedUserCard;
+import com.cardvault.util.CsvReader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Adds many cards to a collection in one request, from CSV (the columns of the CSV export) or from JSON
+ * (an array or NDJSON of UserCardDto or AddToCollectionRequest objects), optionally gzipped.
+ * All api ids are resolved together, the user_cards rows are written with batched statements, and a single
+ * value snapshot is recorded at the end.
+ */
+@Service
+public class CollectionImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CollectionImportService.class);
+    private static final int MAX_ROWS = 100_000;
+    private static final int MAX_ERRORS = 100;
+
+    public enum Format {
+        CSV, JSON, NDJSON;
+
+        public static Format fromParam(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unknown import format: " + value);
+            }
+        }
+    }
+
+    /**
+     * A parsed input row; the condition is a name or an id.
+     */
+    private record Row(int line, String cardApiId, Integer quantity, String condition, BigDecimal purchasePrice,
+                       BigDecimal currentValue, LocalDate acquisitionDate, String notes, Boolean isGraded,
+                       String gradeValue, String gradingCompany) {
+    }
+
+    /**
+     * Everything but the quantity, so rows that only differ in quantity share a key. Amounts are compared by
+     * value, as the database does.
+     */
+    private record Key(UUID cardId, Long conditionId, BigDecimal purchasePrice, BigDecimal currentValue,
+                       LocalDate acquisitionDate, String notes, boolean isGraded, String gradeValue,
+                       String gradingCompany) {
+
+        static Key of(ImportedUserCard row) {
+            return new Key(row.cardId(), row.conditionId(), amount(row.purchasePrice()), amount(row.currentValue()),
+                    row.acquisitionDate(), row.notes(), Boolean.TRUE.equals(row.isGraded()), row.gradeValue(),
+                    row.gradingCompany());
+        }
+
+        private static BigDecimal amount(BigDecimal value) {
+            return value != null ? value.stripTrailingZeros() : null;
+        }
+    }
+
+    private record Slot(UUID cardId, Long conditionId) {
+    }
+
+    private final UserCardRepository userCardRepository;
+    private final CardConditionRepository cardConditionRepository;
+    private final CardCatalogService cardCatalogService;
+    private final CollectionValueHistoryService historyService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public CollectionImportService(UserCardRepository userCardRepository,
+                                   CardConditionRepository cardConditionRepository,
+                                   CardCatalogService cardCatalogService,
+                                   CollectionValueHistoryService historyService,
+                                   ObjectMapper objectMapper) {
+        this.userCardRepository = userCardRepository;
+        this.cardConditionRepository = cardConditionRepository;
+        this.cardCatalogService = cardCatalogService;
+        this.historyService = historyService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * No transaction spans the whole import, so none is held open while missing cards are fetched upstream.
+     * The catalog upsert and the collection rows are each written in one transaction.
+     */
+    public CollectionImportResponse importCollection(UUID userId, Format format, InputStream body)
+            throws IOException {
+        CollectionImportResponse response = new CollectionImportResponse();
+        List<Row> rows = format == Format.CSV
+                ? readCsv(decompress(body), response)
+                : readJson(decompress(body), response);
+        response.setRowCount(rows.size() + response.getSkippedCount());
+
+        Map<String, Card> cards = cardCatalogService.findOrCreateByApiIds(
+                rows.stream().map(Row::cardApiId).toList());
+        Map<String, Long> conditions = new HashMap<>();
+        for (CardCondition condition : cardConditionRepository.findAll()) {
+            conditions.put(condition.getName().toLowerCase(Locale.ROOT), condition.getId());
+            conditions.put(condition.getId().toString(), condition.getId());
+        }
+
+        // Rows equal in everything but quantity are added up, so each is written once. A card has one row per
+        // condition, so a row for a card and condition already taken by a different row is added to that row
+        Map<Key, ImportedUserCard> merged = new LinkedHashMap<>();
+        Map<Key, Row> firstRows = new HashMap<>();
+        Map<Slot, Key> slots = new HashMap<>();
+        for (Row row : rows) {
+            Card card = cards.get(row.cardApiId());
+            if (card == null) {
+                skip(response, row.line(), "unknown card " + row.cardApiId());
+                continue;
+            }
+            Long conditionId = null;
+            if (row.condition() != null) {
+                conditionId = conditions.get(row.condition().toLowerCase(Locale.ROOT));
+                if (conditionId == null) {
+                    skip(response, row.line(), "unknown condition " + row.condition());
+                    continue;
+                }
+            }
+            ImportedUserCard imported = new ImportedUserCard(card.getId(), conditionId,
+                    row.quantity() != null ? row.quantity() : 1, row.purchasePrice(),
+                    row.currentValue() != null ? row.currentValue() : card.getMarketPrice(),
+                    row.acquisitionDate(), row.notes(), row.isGraded(), row.gradeValue(), row.gradingCompany());
+            Key key = Key.of(imported);
+            if (conditionId != null) {
+                Key taken = slots.putIfAbsent(new Slot(card.getId(), conditionId), key);
+                if (taken != null && !taken.equals(key)) {
+                    collapse(response, row);
+                    key = taken;
+                }
+            }
+            ImportedUserCard existing = merged.get(key);
+            if (existing != null) {
+                merged.put(key, existing.withQuantity(existing.quantity() + imported.quantity()));
+            } else {
+                merged.put(key, imported);
+                firstRows.put(key, row);
+            }
+        }
+
+        List<Key> keys = new ArrayList<>(merged.keySet());
+        ImportResult result = userCardRepository.importRows(userId, new ArrayList<>(merged.values()));
+        for (int index : result.collapsed()) {
+            collapse(response, firstRows.get(keys.get(index)));
+        }
+        response.setInsertedCount(result.insertedCount());
+        response.setMergedCount(result.mergedCount());
+        historyService.recordSnapshot(userId);
+
+        logger.info("Imported {} rows into collection of user {}: {} inserted, {} merged, {} collapsed, {} skipped",
+                response.getRowCount(), userId, response.getInsertedCount(), response.getMergedCount(),
+                response.getCollapsedCount(), response.getSkippedCount());
+        return response;
+    }
+
+    private static InputStream decompress(InputStream body) throws IOException {
+        InputStream in = new BufferedInputStream(body);
+        in.mark(2);
+        boolean gzipped = in.read() == 0x1f && in.read() == 0x8b;
+        in.reset();
+        return gzipped ? new GZIPInputStream(in) : in;
+    }
+
+    private List<Row> readCsv(InputStream in, CollectionImportResponse response) throws IOException {
+        CsvReader csv = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        List<String> header = csv.readRow();
+        if (header == null) {
+            return List.of();
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("card_api_id")) {
+            throw new RuntimeException("CSV import needs a card_api_id column");
+        }
+
+        List<Row> rows = new ArrayList<>();
+        int line = 1;
+        List<String> next;
+        while ((next = csv.readRow()) != null) {
+            line++;
+            List<String> fields = next;
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            Function<String, String> field = name -> {
+                Integer index = columns.get(name);
+                if (index == null || index >= fields.size() || fields.get(index).isBlank()) {
+                    return null;
+                }
+                return fields.get(index).trim();
+            };
+            addRow(rows, response, line, field);
+        }
+        return rows;
+    }
+
+    private List<Row> readJson(InputStream in, CollectionImportResponse response) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        int line = 0;
+        // Iterates the elements of a top-level array as well as a sequence of root values (NDJSON)
+        try (MappingIterator<JsonNode> nodes = objectMapper.readerFor(JsonNode.class).readValues(in)) {
+            while (nodes.hasNext()) {
+                line++;
+                JsonNode node = nodes.next();
+                Function<String, String> field = name -> text(switch (name) {
+                    case "card_api_id" -> node.hasNonNull("cardApiId")
+                            ? node.get("cardApiId")
+                            : node.path("card").get("apiId");
+                    case "condition" -> node.hasNonNull("condition")
+                            ? node.get("condition")
+                            : node.get("conditionId");
+                    case "purchase_price" -> node.get("purchasePrice");
+                    case "current_value" -> node.get("currentValue");
+                    case "acquisition_date" -> node.get("acquisitionDate");
+                    case "is_graded" -> node.get("isGraded");
+                    case "grade_value" -> node.get("gradeValue");
+                    case "grading_company" -> node.get("gradingCompany");
+                    default -> node.get(name);
+                });
+                addRow(rows, response, line, field);
+            }
+        }
+        return rows;
+    }
+
+    private static String text(JsonNode node) {
+        if (node == null || node.isNull() || node.isContainerNode()) {
+            return null;
+        }
+        String value = node.asText().trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Parse one row from its fields, keyed by CSV column name, or record why it is skipped.
+     */
+    private void addRow(List<Row> rows, CollectionImportResponse response, int line, Function<String, String> field) {
+        if (rows.size() >= MAX_ROWS) {
+            throw new RuntimeException("An import is limited to " + MAX_ROWS + " rows");
+        }
+        String apiId = field.apply("card_api_id");
+        if (apiId == null) {
+            skip(response, line, "missing card api id");
+            return;
+        }
+        try {
+            String quantity = field.apply("quantity");
+            Row row = new Row(line, apiId,
+                    quantity != null ? Integer.valueOf(quantity) : null,
+                    field.apply("condition"),
+                    decimal(field.apply("purchase_price")),
+                    decimal(field.apply("current_value")),
+                    field.apply("acquisition_date") != null ? LocalDate.parse(field.apply("acquisition_date")) : null,
+                    field.apply("notes"),
+                    field.apply("is_graded") != null ? Boolean.valueOf(field.apply("is_graded")) : null,
+                    field.apply("grade_value"),
+                    field.apply("grading_company"));
+            if (row.quantity() != null && row.quantity() <= 0) {
+                skip(response, line, "quantity must be greater than 0");
+                return;
+            }
+            rows.add(row);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            skip(response, line, "invalid value: " + e.getMessage());
+        }
+    }
+
+    private static BigDecimal decimal(String value) {
+        return value != null ? new BigDecimal(value) : null;
+    }
+
+    private static void collapse(CollectionImportResponse response, Row row) {
+        response.setCollapsedCount(response.getCollapsedCount() + 1);
+        if (response.getCollapsed().size() < MAX_ERRORS) {
+            response.getCollapsed().add("Row " + row.line() + ": added to the existing " + row.cardApiId() +
+                    " row with condition " + row.condition() + "; its price, date, notes and grading were not kept");
+        }
+    }
+
+    private static void skip(CollectionImportResponse response, int line, String reason) {
+        response.setSkippedCount(response.getSkippedCount() + 1);
+        if (response.getErrors().size() < MAX_ERRORS) {
+            response.getErrors().add("Row " + line + ": " + reason);
+        }
+    }
+}
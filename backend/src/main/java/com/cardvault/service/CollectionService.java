@@ -1,13 +1,11 @@
 package com.cardvault.service;
 
 import com.cardvault.dto.AddToCollectionRequest;
-import com.cardvault.dto.PokemonCardDto;
 import com.cardvault.model.Card;
 import com.cardvault.model.CardCondition;
 import com.cardvault.model.User;
 import com.cardvault.model.UserCard;
 import com.cardvault.repository.CardConditionRepository;
-import com.cardvault.repository.CardRepository;
 import com.cardvault.repository.UserCardRepository;
 import com.cardvault.repository.UserRepository;
 import org.slf4j.Logger;
@@ -15,10 +13,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -30,9 +27,6 @@ public class CollectionService {
     @Autowired
     private UserCardRepository userCardRepository;
 
-    @Autowired
-    private CardRepository cardRepository;
-
     @Autowired
     private UserRepository userRepository;
 
@@ -40,24 +34,29 @@ public class CollectionService {
     private CardConditionRepository cardConditionRepository;
 
     @Autowired
-    private PokemonTcgService pokemonTcgService;
+    private CardCatalogService cardCatalogService;
 
     @Autowired
     private CollectionValueHistoryService historyService;
 
-    @Transactional
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * The card is resolved before the write transaction starts, so a request waiting on another's import
+     * of the same card does not hold a transaction while it waits.
+     */
     public UserCard addToCollection(UUID userId, AddToCollectionRequest request) {
         logger.info("Adding card {} to collection for user {}", request.getCardApiId(), userId);
 
+        Card card = cardCatalogService.findOrCreateByApiId(request.getCardApiId());
+        return transactionTemplate.execute(status -> addCard(userId, card, request));
+    }
+
+    private UserCard addCard(UUID userId, Card card, AddToCollectionRequest request) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        Card card = cardRepository.findByApiId(request.getCardApiId())
-                .orElseGet(() -> {
-                    PokemonCardDto pokemonCard = pokemonTcgService.getCardById(request.getCardApiId());
-                    return createCardFromPokemonDto(pokemonCard);
-                });
-
         Optional<UserCard> existingUserCard = userCardRepository.findByUserIdAndCardId(userId, card.getId());
 
         if (existingUserCard.isPresent()) {
@@ -93,10 +92,6 @@ public class CollectionService {
         return saved;
     }
 
-    public List<UserCard> getUserCollection(UUID userId) {
-        return userCardRepository.findByUserIdOrderByCreatedAtDesc(userId);
-    }
-
     public Optional<UserCard> getUserCardById(UUID userId, UUID userCardId) {
         return userCardRepository.findById(userCardId)
                 .filter(uc -> uc.getUser().getId().equals(userId));
@@ -145,55 +140,4 @@ public class CollectionService {
         logger.info("Removed card {} from collection for user {}", userCardId, userId);
         historyService.recordSnapshot(userId);
     }
-
-    private Card createCardFromPokemonDto(PokemonCardDto dto) {
-        Card card = new Card();
-        card.setApiId(dto.getId());
-        card.setName(dto.getName());
-        card.setSetName(dto.getSet() != null ? dto.getSet().getName() : null);
-        card.setSetSeries(dto.getSet() != null ? dto.getSet().getSeries() : null);
-        card.setCardNumber(dto.getNumber());
-        card.setRarity(dto.getRarity());
-        card.setSupertype(dto.getSupertype());
-        card.setSubtypes(dto.getSubtypes() != null ? String.join(",", dto.getSubtypes()) : null);
-        if (dto.getHp() != null) {
-            try {
-                card.setHp(Integer.parseInt(dto.getHp()));
-            } catch (NumberFormatException e) {
-                logger.warn("Failed to parse HP value: {}", dto.getHp());
-                card.setHp(null);
-            }
-        }
-        card.setArtist(dto.getArtist());
-        card.setImageUrl(dto.getImages() != null ? dto.getImages().getLarge() : null);
-        card.setSmallImageUrl(dto.getImages() != null ? dto.getImages().getSmall() : null);
-
-        if (dto.getTcgplayer() != null && dto.getTcgplayer().getPrices() != null) {
-            BigDecimal marketPrice = extractMarketPrice(dto.getTcgplayer().getPrices());
-            card.setMarketPrice(marketPrice);
-        }
-
-        if (dto.getSet() != null && dto.getSet().getReleaseDate() != null) {
-            try {
-                card.setReleaseDate(LocalDate.parse(dto.getSet().getReleaseDate()));
-            } catch (Exception e) {
-                logger.warn("Failed to parse release date: {}", dto.getSet().getReleaseDate());
-            }
-        }
-
-        return cardRepository.save(card);
-    }
-
-    private BigDecimal extractMarketPrice(PokemonCardDto.TcgPlayer.Prices prices) {
-        if (prices.getHolofoil() != null && prices.getHolofoil().getMarket() != null) {
-            return BigDecimal.valueOf(prices.getHolofoil().getMarket());
-        }
-        if (prices.getReverseHolofoil() != null && prices.getReverseHolofoil().getMarket() != null) {
-            return BigDecimal.valueOf(prices.getReverseHolofoil().getMarket());
-        }
-        if (prices.getNormal() != null && prices.getNormal().getMarket() != null) {
-            return BigDecimal.valueOf(prices.getNormal().getMarket());
-        }
-        return BigDecimal.ZERO;
-    }
 }
@@ -39,7 +39,7 @@ public class CollectionValueHistoryService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        List<UserCard> collection = userCardRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        List<UserCard> collection = userCardRepository.findByUserId(userId);
 
         BigDecimal totalValue = BigDecimal.ZERO;
         int totalCards = 0;
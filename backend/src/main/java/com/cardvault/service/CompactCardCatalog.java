@@ -0,0 +1,615 @@
+package com.cardvault.service;
+
+import com.cardvault.model.Card;
+import com.cardvault.repository.CardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only, dictionary-encoded snapshot of the cards table for lookups by id or api id without touching
+ * the database.
+ * <p>
+ * Columns are primitive arrays indexed by row, with rows sorted by id for binary search. Repetitive strings
+ * (name, set, series, rarity, type, artist, ...) are stored once in a per-column dictionary and referenced
+ * by int code, and image URLs are split into a shared directory prefix and a file name. Prices are stored
+ * as cents and dates as epoch days. Lookups return a fresh unmanaged {@link Card}.
+ * <p>
+ * The snapshot is rebuilt at startup and after each catalog sync, and replaced as a whole. Cards changed
+ * locally are re-read in one batch after their transaction finishes and kept in a small overlay snapshot,
+ * copied on write, that takes precedence over the main one. Until then they are marked dirty and served from
+ * the database. A full rebuild folds the overlay back into the main snapshot once it grows large.
+ */
+@Service
+public class CompactCardCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompactCardCatalog.class);
+    private static final int NO_INT = Integer.MIN_VALUE;
+    private static final long NO_LONG = Long.MIN_VALUE;
+    private static final int MAX_PATCHED_CARDS = 2_000;
+    private static final int PATCH_CHUNK_SIZE = 1_000;
+
+    private final CardRepository cardRepository;
+    private final TaskExecutor taskExecutor;
+
+    private volatile State state = new State(new Builder().build(), new Builder().build(), Set.of());
+    // Cards re-read since the last full rebuild, by id; null for deleted cards. Guarded by this
+    private final Map<UUID, Card> patched = new HashMap<>();
+    // Card id -> 0 while the transaction that changed it runs, then a completion number
+    private final Map<UUID, Long> dirty = new ConcurrentHashMap<>();
+    private final AtomicLong completions = new AtomicLong();
+    private final Set<UUID> toPatch = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final AtomicBoolean patchQueued = new AtomicBoolean();
+
+    /**
+     * The main snapshot, and the overlay of cards changed since it was built. {@code patchedIds} also holds
+     * the ids of deleted cards, which the overlay has no row for.
+     */
+    private record State(Snapshot main, Snapshot overlay, Set<UUID> patchedIds) {
+    }
+
+    @Autowired
+    public CompactCardCatalog(CardRepository cardRepository,
+                              @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.cardRepository = cardRepository;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        queueRebuild();
+    }
+
+    /**
+     * Rebuild the snapshot from the cards table.
+     */
+    public synchronized void rebuild() {
+        Map<UUID, Long> covered = completed(dirty.keySet());
+
+        Builder builder = new Builder();
+        cardRepository.forEachCard(builder::add);
+        Snapshot built = builder.build();
+        // Patches were read before this scan started, so it holds them too
+        patched.clear();
+        state = new State(built, new Builder().build(), Set.of());
+        // Cards changed again since the read started stay dirty
+        covered.forEach(dirty::remove);
+        logger.info("Built compact card catalog: {} cards, {} distinct names, {} sets, {} image directories",
+                built.size(), built.name.values.length, built.setName.values.length,
+                built.imageDirectory.values.length);
+    }
+
+    /**
+     * Mark a card as changed. It is served from the database until it has been re-read into the overlay,
+     * which is queued once the current transaction (if any) finishes.
+     */
+    public void invalidate(UUID id) {
+        if (id == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            dirty.put(id, 0L);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    completed(id);
+                }
+            });
+        } else {
+            completed(id);
+        }
+    }
+
+    private void completed(UUID id) {
+        dirty.put(id, completions.incrementAndGet());
+        toPatch.add(id);
+        queuePatch();
+    }
+
+    /**
+     * The completion numbers of the given dirty cards whose transaction has finished.
+     */
+    private Map<UUID, Long> completed(Collection<UUID> ids) {
+        Map<UUID, Long> completed = new HashMap<>();
+        for (UUID id : ids) {
+            Long completion = dirty.get(id);
+            if (completion != null && completion > 0) {
+                completed.put(id, completion);
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * Re-read changed cards into the overlay, in chunks, and publish a new overlay built from all patched
+     * cards. Falls back to a full rebuild once the overlay would grow past {@link #MAX_PATCHED_CARDS}.
+     */
+    private synchronized void patch(Collection<UUID> ids) {
+        Map<UUID, Long> covered = completed(ids);
+        if (covered.isEmpty()) {
+            return;
+        }
+        if (patched.size() + covered.size() > MAX_PATCHED_CARDS) {
+            rebuild();
+            return;
+        }
+
+        List<UUID> read = new ArrayList<>(covered.keySet());
+        Map<UUID, Card> found = new HashMap<>();
+        for (int i = 0; i < read.size(); i += PATCH_CHUNK_SIZE) {
+            cardRepository.findAllById(read.subList(i, Math.min(i + PATCH_CHUNK_SIZE, read.size())))
+                    .forEach(card -> found.put(card.getId(), card));
+        }
+        read.forEach(id -> patched.put(id, found.get(id)));
+
+        Builder overlay = new Builder();
+        patched.values().stream().filter(Objects::nonNull).forEach(overlay::add);
+        state = new State(state.main(), overlay.build(), Set.copyOf(patched.keySet()));
+        covered.forEach(dirty::remove);
+        logger.debug("Patched {} cards into the compact card catalog overlay ({} in total)", read.size(),
+                patched.size());
+    }
+
+    private void queueRebuild() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                rebuildQueued.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    logger.error("Failed to build compact card catalog: {}", e.getMessage(), e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Queue one patch for the cards changed so far; changes arriving while it runs are picked up by the next.
+     */
+    private void queuePatch() {
+        if (patchQueued.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                patchQueued.set(false);
+                List<UUID> ids = new ArrayList<>(toPatch);
+                toPatch.removeAll(ids);
+                try {
+                    patch(ids);
+                } catch (RuntimeException e) {
+                    // The cards stay dirty and are served from the database until the next rebuild
+                    logger.error("Failed to patch compact card catalog: {}", e.getMessage(), e);
+                }
+            });
+        }
+    }
+
+    /**
+     * The card with this id, or empty if the snapshot does not hold a current copy of it.
+     */
+    public Optional<Card> findById(UUID id) {
+        if (id == null || dirty.containsKey(id)) {
+            return Optional.empty();
+        }
+        State current = state;
+        Snapshot snapshot = current.patchedIds().contains(id) ? current.overlay() : current.main();
+        int row = snapshot.rowOf(id);
+        return row < 0 ? Optional.empty() : Optional.of(snapshot.toCard(row));
+    }
+
+    /**
+     * The card with this api id, or empty if the snapshot does not hold a current copy of it.
+     */
+    public Optional<Card> findByApiId(String apiId) {
+        if (apiId == null) {
+            return Optional.empty();
+        }
+        State current = state;
+        int row = current.overlay().rowOfApiId(apiId);
+        if (row >= 0) {
+            UUID id = current.overlay().id(row);
+            return dirty.containsKey(id) ? Optional.empty() : Optional.of(current.overlay().toCard(row));
+        }
+        row = current.main().rowOfApiId(apiId);
+        if (row < 0) {
+            return Optional.empty();
+        }
+        // A patched card missing from the overlay under this api id was deleted or renamed
+        UUID id = current.main().id(row);
+        if (dirty.containsKey(id) || current.patchedIds().contains(id)) {
+            return Optional.empty();
+        }
+        return Optional.of(current.main().toCard(row));
+    }
+
+    /**
+     * The snapshot copy of a card, or the card itself if there is none. Only the id is read, so an
+     * uninitialized lazy reference is not loaded.
+     */
+    public Card resolve(Card card) {
+        if (card == null) {
+            return null;
+        }
+        return findById(card.getId()).orElse(card);
+    }
+
+    /**
+     * The cards with these ids, keyed by id. Cards the snapshot has no current copy of are loaded from the
+     * database in one query; ids of deleted cards are absent.
+     */
+    public Map<UUID, Card> findAllById(Collection<UUID> ids) {
+        Map<UUID, Card> cards = new HashMap<>();
+        Set<UUID> missing = new HashSet<>();
+        for (UUID id : ids) {
+            if (!cards.containsKey(id)) {
+                findById(id).ifPresentOrElse(card -> cards.put(id, card), () -> missing.add(id));
+            }
+        }
+        if (!missing.isEmpty()) {
+            cardRepository.findAllById(missing).forEach(card -> cards.put(card.getId(), card));
+        }
+        return cards;
+    }
+
+    /**
+     * Strings stored once, referenced by code; -1 is null.
+     */
+    private static final class Dictionary {
+        private final String[] values;
+        private final int[] codes;
+
+        private Dictionary(String[] values, int[] codes) {
+            this.values = values;
+            this.codes = codes;
+        }
+
+        String get(int row) {
+            int code = codes[row];
+            return code < 0 ? null : values[code];
+        }
+    }
+
+    private static final class Snapshot {
+        private final long[] idMost;
+        private final long[] idLeast;
+        private final String[] apiIds;
+        // Rows with an api id, ordered by it
+        private final int[] apiIdOrder;
+        private final Dictionary name;
+        private final Dictionary setId;
+        private final Dictionary setName;
+        private final Dictionary setSeries;
+        private final Dictionary cardNumber;
+        private final Dictionary rarity;
+        private final Dictionary cardType;
+        private final Dictionary supertype;
+        private final Dictionary subtypes;
+        private final Dictionary artist;
+        // Image URLs split after the last '/'; small and large images share the directory dictionary
+        private final Dictionary imageDirectory;
+        private final int[] smallImageDirectory;
+        private final String[] imageFile;
+        private final String[] smallImageFile;
+        private final int[] hp;
+        private final long[] priceCents;
+        private final int[] priceUpdatedDay;
+        private final int[] releaseDay;
+        private final long[] createdMicros;
+        private final long[] updatedMicros;
+
+        private Snapshot(Builder b, int[] order) {
+            this.idMost = permute(b.idMost, order);
+            this.idLeast = permute(b.idLeast, order);
+            this.apiIds = permute(b.apiIds, order);
+            this.name = b.name.build(order);
+            this.setId = b.setId.build(order);
+            this.setName = b.setName.build(order);
+            this.setSeries = b.setSeries.build(order);
+            this.cardNumber = b.cardNumber.build(order);
+            this.rarity = b.rarity.build(order);
+            this.cardType = b.cardType.build(order);
+            this.supertype = b.supertype.build(order);
+            this.subtypes = b.subtypes.build(order);
+            this.artist = b.artist.build(order);
+            this.imageDirectory = b.imageDirectory.build(order);
+            this.smallImageDirectory = permute(b.smallImageDirectory, order);
+            this.imageFile = permute(b.imageFile, order);
+            this.smallImageFile = permute(b.smallImageFile, order);
+            this.hp = permute(b.hp, order);
+            this.priceCents = permute(b.priceCents, order);
+            this.priceUpdatedDay = permute(b.priceUpdatedDay, order);
+            this.releaseDay = permute(b.releaseDay, order);
+            this.createdMicros = permute(b.createdMicros, order);
+            this.updatedMicros = permute(b.updatedMicros, order);
+
+            this.apiIdOrder = IntStream.range(0, apiIds.length)
+                    .filter(row -> apiIds[row] != null)
+                    .boxed()
+                    .sorted(Comparator.comparing(row -> apiIds[row]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        int size() {
+            return idMost.length;
+        }
+
+        UUID id(int row) {
+            return new UUID(idMost[row], idLeast[row]);
+        }
+
+        int rowOf(UUID id) {
+            int low = 0;
+            int high = idMost.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compare(idMost[mid], idLeast[mid], id.getMostSignificantBits(), id.getLeastSignificantBits());
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        int rowOfApiId(String apiId) {
+            int low = 0;
+            int high = apiIdOrder.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = apiIds[apiIdOrder[mid]].compareTo(apiId);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return apiIdOrder[mid];
+                }
+            }
+            return -1;
+        }
+
+        Card toCard(int row) {
+            Card card = new Card();
+            card.setId(id(row));
+            card.setApiId(apiIds[row]);
+            card.setName(name.get(row));
+            card.setSetId(setId.get(row));
+            card.setSetName(setName.get(row));
+            card.setSetSeries(setSeries.get(row));
+            card.setCardNumber(cardNumber.get(row));
+            card.setRarity(rarity.get(row));
+            card.setCardType(cardType.get(row));
+            card.setSupertype(supertype.get(row));
+            card.setSubtypes(subtypes.get(row));
+            card.setArtist(artist.get(row));
+            card.setHp(hp[row] == NO_INT ? null : hp[row]);
+            card.setImageUrl(joinUrl(imageDirectory.get(row), imageFile[row]));
+            int smallDirectory = smallImageDirectory[row];
+            card.setSmallImageUrl(joinUrl(smallDirectory < 0 ? null : imageDirectory.values[smallDirectory],
+                    smallImageFile[row]));
+            card.setMarketPrice(priceCents[row] == NO_LONG ? null : BigDecimal.valueOf(priceCents[row], 2));
+            card.setPriceUpdatedAt(priceUpdatedDay[row] == NO_INT ? null : LocalDate.ofEpochDay(priceUpdatedDay[row]));
+            card.setReleaseDate(releaseDay[row] == NO_INT ? null : LocalDate.ofEpochDay(releaseDay[row]));
+            card.setCreatedAt(toDateTime(createdMicros[row]));
+            card.setUpdatedAt(toDateTime(updatedMicros[row]));
+            return card;
+        }
+
+        // Same order as UUID.compareTo
+        private static int compare(long mostA, long leastA, long mostB, long leastB) {
+            int cmp = Long.compare(mostA, mostB);
+            return cmp != 0 ? cmp : Long.compare(leastA, leastB);
+        }
+
+        private static String joinUrl(String directory, String file) {
+            if (file == null) {
+                return null;
+            }
+            return directory == null ? file : directory + file;
+        }
+
+        private static LocalDateTime toDateTime(long micros) {
+            if (micros == NO_LONG) {
+                return null;
+            }
+            return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                    (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+        }
+    }
+
+    /**
+     * Collects rows in scan order; {@link #build()} sorts them by id.
+     */
+    private static final class Builder {
+        private int size;
+        private long[] idMost = new long[1024];
+        private long[] idLeast = new long[1024];
+        private String[] apiIds = new String[1024];
+        private final DictionaryBuilder name = new DictionaryBuilder();
+        private final DictionaryBuilder setId = new DictionaryBuilder();
+        private final DictionaryBuilder setName = new DictionaryBuilder();
+        private final DictionaryBuilder setSeries = new DictionaryBuilder();
+        private final DictionaryBuilder cardNumber = new DictionaryBuilder();
+        private final DictionaryBuilder rarity = new DictionaryBuilder();
+        private final DictionaryBuilder cardType = new DictionaryBuilder();
+        private final DictionaryBuilder supertype = new DictionaryBuilder();
+        private final DictionaryBuilder subtypes = new DictionaryBuilder();
+        private final DictionaryBuilder artist = new DictionaryBuilder();
+        private final DictionaryBuilder imageDirectory = new DictionaryBuilder();
+        private int[] smallImageDirectory = new int[1024];
+        private String[] imageFile = new String[1024];
+        private String[] smallImageFile = new String[1024];
+        private int[] hp = new int[1024];
+        private long[] priceCents = new long[1024];
+        private int[] priceUpdatedDay = new int[1024];
+        private int[] releaseDay = new int[1024];
+        private long[] createdMicros = new long[1024];
+        private long[] updatedMicros = new long[1024];
+
+        void add(Card card) {
+            if (size == idMost.length) {
+                grow();
+            }
+            int row = size++;
+            idMost[row] = card.getId().getMostSignificantBits();
+            idLeast[row] = card.getId().getLeastSignificantBits();
+            apiIds[row] = card.getApiId();
+            name.add(card.getName());
+            setId.add(card.getSetId());
+            setName.add(card.getSetName());
+            setSeries.add(card.getSetSeries());
+            cardNumber.add(card.getCardNumber());
+            rarity.add(card.getRarity());
+            cardType.add(card.getCardType());
+            supertype.add(card.getSupertype());
+            subtypes.add(card.getSubtypes());
+            artist.add(card.getArtist());
+
+            String image = card.getImageUrl();
+            imageDirectory.add(directoryOf(image));
+            imageFile[row] = fileOf(image);
+            String smallImage = card.getSmallImageUrl();
+            smallImageDirectory[row] = imageDirectory.code(directoryOf(smallImage));
+            smallImageFile[row] = fileOf(smallImage);
+
+            hp[row] = card.getHp() != null ? card.getHp() : NO_INT;
+            priceCents[row] = card.getMarketPrice() != null
+                    ? card.getMarketPrice().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact()
+                    : NO_LONG;
+            priceUpdatedDay[row] = card.getPriceUpdatedAt() != null
+                    ? (int) card.getPriceUpdatedAt().toEpochDay() : NO_INT;
+            releaseDay[row] = card.getReleaseDate() != null ? (int) card.getReleaseDate().toEpochDay() : NO_INT;
+            createdMicros[row] = toMicros(card.getCreatedAt());
+            updatedMicros[row] = toMicros(card.getUpdatedAt());
+        }
+
+        Snapshot build() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Snapshot.compare(idMost[a], idLeast[a], idMost[b], idLeast[b]));
+            return new Snapshot(this, Arrays.stream(order).mapToInt(Integer::intValue).toArray());
+        }
+
+        private void grow() {
+            int capacity = idMost.length * 2;
+            idMost = Arrays.copyOf(idMost, capacity);
+            idLeast = Arrays.copyOf(idLeast, capacity);
+            apiIds = Arrays.copyOf(apiIds, capacity);
+            smallImageDirectory = Arrays.copyOf(smallImageDirectory, capacity);
+            imageFile = Arrays.copyOf(imageFile, capacity);
+            smallImageFile = Arrays.copyOf(smallImageFile, capacity);
+            hp = Arrays.copyOf(hp, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            priceUpdatedDay = Arrays.copyOf(priceUpdatedDay, capacity);
+            releaseDay = Arrays.copyOf(releaseDay, capacity);
+            createdMicros = Arrays.copyOf(createdMicros, capacity);
+            updatedMicros = Arrays.copyOf(updatedMicros, capacity);
+        }
+
+        private static String directoryOf(String url) {
+            int slash = url == null ? -1 : url.lastIndexOf('/');
+            return slash < 0 ? null : url.substring(0, slash + 1);
+        }
+
+        private static String fileOf(String url) {
+            int slash = url == null ? -1 : url.lastIndexOf('/');
+            return slash < 0 ? url : url.substring(slash + 1);
+        }
+
+        private static long toMicros(LocalDateTime dateTime) {
+            if (dateTime == null) {
+                return NO_LONG;
+            }
+            return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1000;
+        }
+    }
+
+    private static final class DictionaryBuilder {
+        private final Map<String, Integer> codeByValue = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private int[] codes = new int[1024];
+        private int size;
+
+        void add(String value) {
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, size * 2);
+            }
+            codes[size++] = code(value);
+        }
+
+        /**
+         * Code of a value, adding it to the dictionary if new.
+         */
+        int code(String value) {
+            if (value == null) {
+                return -1;
+            }
+            return codeByValue.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+
+        Dictionary build(int[] order) {
+            return new Dictionary(values.toArray(String[]::new), permute(codes, order));
+        }
+    }
+
+    private static int[] permute(int[] column, int[] order) {
+        int[] out = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            out[i] = column[order[i]];
+        }
+        return out;
+    }
+
+    private static long[] permute(long[] column, int[] order) {
+        long[] out = new long[order.length];
+        for (int i = 0; i < order.length; i++) {
+            out[i] = column[order[i]];
+        }
+        return out;
+    }
+
+    private static String[] permute(String[] column, int[] order) {
+        String[] out = new String[order.length];
+        for (int i = 0; i < order.length; i++) {
+            out[i] = column[order[i]];
+        }
+        return out;
+    }
+}
@@ -0,0 +1,314 @@
+package com.cardvault.service;
+
+import com.cardvault.dto.PokemonCardDto;
+import com.cardvault.dto.PokemonCardResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-process cache for Pokemon TCG API responses.
+ * Search pages are keyed on the normalized (query, page, pageSize) tuple, single cards on their api id.
+ * Both caches are size bounded (W-TinyLFU eviction) and record hit/miss/eviction statistics.
+ * The last good copy of every entry is kept for longer in separate stale caches, which are only read
+ * when the upstream API is unavailable. When the {@link PokemonTcgDiskCache} is enabled, entries are also
+ * written to disk, read back on an in-memory miss, and used to warm the caches on startup.
+ */
+@Component
+public class PokemonTcgCache {
+
+    private static final String SEARCH_PREFIX = "search|";
+    private static final String CARD_PREFIX = "card|";
+
+    private final Cache<String, PokemonCardResponse> searchCache;
+    private final Cache<String, PokemonCardDto> cardCache;
+    private final Cache<String, PokemonCardResponse> staleSearchCache;
+    private final Cache<String, PokemonCardDto> staleCardCache;
+    private final PokemonTcgDiskCache diskCache;
+    private final long searchMaxSize;
+    private final long cardMaxSize;
+    private final Duration searchTtl;
+    private final Duration emptySearchTtl;
+    private final Duration cardTtl;
+
+    public PokemonTcgCache(@Value("${pokemon.tcg.cache.search.max-size:2000}") long searchMaxSize,
+                           @Value("${pokemon.tcg.cache.search.ttl:PT10M}") Duration searchTtl,
+                           @Value("${pokemon.tcg.cache.search.empty-ttl:PT1M}") Duration emptySearchTtl,
+                           @Value("${pokemon.tcg.cache.card.max-size:20000}") long cardMaxSize,
+                           @Value("${pokemon.tcg.cache.card.ttl:PT6H}") Duration cardTtl,
+                           @Value("${pokemon.tcg.cache.stale-ttl:PT24H}") Duration staleTtl,
+                           PokemonTcgDiskCache diskCache) {
+        this.diskCache = diskCache;
+        this.searchMaxSize = searchMaxSize;
+        this.cardMaxSize = cardMaxSize;
+        this.searchTtl = searchTtl;
+        this.emptySearchTtl = emptySearchTtl;
+        this.cardTtl = cardTtl;
+        this.searchCache = Caffeine.newBuilder()
+                .maximumSize(searchMaxSize)
+                .expireAfter(new SearchExpiry(searchTtl, emptySearchTtl))
+                .recordStats()
+                .build();
+        this.cardCache = Caffeine.newBuilder()
+                .maximumSize(cardMaxSize)
+                .expireAfter(new FixedExpiry<String, PokemonCardDto>(cardTtl))
+                .recordStats()
+                .build();
+        this.staleSearchCache = Caffeine.newBuilder()
+                .maximumSize(searchMaxSize)
+                .expireAfterWrite(staleTtl)
+                .build();
+        this.staleCardCache = Caffeine.newBuilder()
+                .maximumSize(cardMaxSize)
+                .expireAfterWrite(staleTtl)
+                .build();
+    }
+
+    /**
+     * Load entries persisted by the previous run into the in-memory caches, keeping their remaining TTL.
+     */
+    @PostConstruct
+    public void warmFromDisk() {
+        diskCache.warmLoad(SEARCH_PREFIX, PokemonCardResponse.class, (int) Math.min(searchMaxSize, Integer.MAX_VALUE),
+                (key, entry) -> {
+                    staleSearchCache.put(key, entry.value());
+                    if (entry.isFresh()) {
+                        putFresh(searchCache, key, entry);
+                    }
+                });
+        diskCache.warmLoad(CARD_PREFIX, PokemonCardDto.class, (int) Math.min(cardMaxSize, Integer.MAX_VALUE),
+                (key, entry) -> {
+                    staleCardCache.put(key, entry.value());
+                    if (entry.isFresh()) {
+                        putFresh(cardCache, key, entry);
+                    }
+                });
+    }
+
+    public static String searchKey(String query, int page, int pageSize) {
+        String normalized = query == null ? "" : query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return normalized + "|" + page + "|" + pageSize;
+    }
+
+    public static String cardKey(String cardId) {
+        return cardId == null ? "" : cardId.trim();
+    }
+
+    /**
+     * Return the cached search page for the key, loading it with the given function on a miss.
+     * Cards contained in a freshly loaded page are also added to the card cache.
+     */
+    public PokemonCardResponse getSearch(String key, Function<String, PokemonCardResponse> loader) {
+        PokemonCardResponse fromDisk = loadFreshFromDisk(searchCache, SEARCH_PREFIX, key, PokemonCardResponse.class);
+        if (fromDisk != null) {
+            return fromDisk;
+        }
+        return searchCache.get(key, k -> {
+            PokemonCardResponse response = loader.apply(k);
+            if (response != null) {
+                staleSearchCache.put(k, response);
+                diskCache.put(SEARCH_PREFIX + k, response, isEmpty(response) ? emptySearchTtl : searchTtl);
+                if (response.getData() != null) {
+                    response.getData().forEach(this::putCard);
+                }
+            }
+            return response;
+        });
+    }
+
+    /**
+     * Look up a cached search page for a request that loads it through {@link #getSearch} on a miss.
+     * Only a hit is recorded here, as the load records the miss.
+     */
+    public PokemonCardResponse findSearch(String key) {
+        return searchCache.policy().getIfPresentQuietly(key) != null ? searchCache.getIfPresent(key) : null;
+    }
+
+    /**
+     * Look up a cached card for a request that loads it through {@link #getCard} on a miss.
+     * Only a hit is recorded here, as the load records the miss.
+     */
+    public PokemonCardDto findCard(String key) {
+        return cardCache.policy().getIfPresentQuietly(key) != null ? cardCache.getIfPresent(key) : null;
+    }
+
+    /**
+     * Look up a cached card, recording the hit or miss, for callers that fetch misses without {@link #getCard}.
+     */
+    public PokemonCardDto getCardIfPresent(String key) {
+        return cardCache.getIfPresent(key);
+    }
+
+    public PokemonCardDto getCard(String key, Function<String, PokemonCardDto> loader) {
+        PokemonCardDto fromDisk = loadFreshFromDisk(cardCache, CARD_PREFIX, key, PokemonCardDto.class);
+        if (fromDisk != null) {
+            return fromDisk;
+        }
+        return cardCache.get(key, k -> {
+            PokemonCardDto card = loader.apply(k);
+            if (card != null) {
+                staleCardCache.put(k, card);
+                diskCache.put(CARD_PREFIX + k, card, cardTtl);
+            }
+            return card;
+        });
+    }
+
+    public void putCard(PokemonCardDto card) {
+        if (card != null && card.getId() != null) {
+            String key = cardKey(card.getId());
+            cardCache.put(key, card);
+            staleCardCache.put(key, card);
+            diskCache.put(CARD_PREFIX + key, card, cardTtl);
+        }
+    }
+
+    /**
+     * On an in-memory miss, promote a still fresh disk entry into the cache for its remaining TTL.
+     */
+    private <V> V loadFreshFromDisk(Cache<String, V> cache, String prefix, String key, Class<V> type) {
+        if (!diskCache.isEnabled() || cache.policy().getIfPresentQuietly(key) != null) {
+            return null;
+        }
+        PokemonTcgDiskCache.Entry<V> entry = diskCache.get(prefix + key, type);
+        if (entry == null || !entry.isFresh()) {
+            return null;
+        }
+        putFresh(cache, key, entry);
+        return entry.value();
+    }
+
+    private <V> void putFresh(Cache<String, V> cache, String key, PokemonTcgDiskCache.Entry<V> entry) {
+        cache.policy().expireVariably().ifPresent(policy -> policy.put(key, entry.value(), entry.remainingTtl()));
+    }
+
+    private static boolean isEmpty(PokemonCardResponse response) {
+        return response.getData() == null || response.getData().isEmpty();
+    }
+
+    /**
+     * The last good copy of a search page, marked stale, or null if there is none.
+     */
+    public PokemonCardResponse getStaleSearch(String key) {
+        PokemonCardResponse response = staleSearchCache.getIfPresent(key);
+        if (response == null) {
+            PokemonTcgDiskCache.Entry<PokemonCardResponse> entry =
+                    diskCache.get(SEARCH_PREFIX + key, PokemonCardResponse.class);
+            if (entry == null) {
+                return null;
+            }
+            response = entry.value();
+        }
+        PokemonCardResponse copy = new PokemonCardResponse();
+        copy.setData(response.getData());
+        copy.setPage(response.getPage());
+        copy.setPageSize(response.getPageSize());
+        copy.setCount(response.getCount());
+        copy.setTotalCount(response.getTotalCount());
+        copy.setStale(true);
+        return copy;
+    }
+
+    public PokemonCardDto getStaleCard(String key) {
+        PokemonCardDto card = staleCardCache.getIfPresent(key);
+        if (card == null) {
+            PokemonTcgDiskCache.Entry<PokemonCardDto> entry = diskCache.get(CARD_PREFIX + key, PokemonCardDto.class);
+            return entry != null ? entry.value() : null;
+        }
+        return card;
+    }
+
+    public void invalidateAll() {
+        searchCache.invalidateAll();
+        cardCache.invalidateAll();
+        staleSearchCache.invalidateAll();
+        staleCardCache.invalidateAll();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("search", toMap(searchCache.stats(), searchCache.estimatedSize()));
+        stats.put("card", toMap(cardCache.stats(), cardCache.estimatedSize()));
+        stats.put("staleSearchSize", staleSearchCache.estimatedSize());
+        stats.put("staleCardSize", staleCardCache.estimatedSize());
+        stats.put("disk", diskCache.getStats());
+        return stats;
+    }
+
+    private Map<String, Object> toMap(CacheStats stats, long size) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("size", size);
+        map.put("hits", stats.hitCount());
+        map.put("misses", stats.missCount());
+        map.put("hitRate", stats.hitRate());
+        map.put("evictions", stats.evictionCount());
+        map.put("loadFailures", stats.loadFailureCount());
+        map.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        return map;
+    }
+
+    /**
+     * Empty result pages expire sooner so newly released cards show up quickly.
+     */
+    private static class SearchExpiry implements Expiry<String, PokemonCardResponse> {
+        private final long ttlNanos;
+        private final long emptyTtlNanos;
+
+        SearchExpiry(Duration ttl, Duration emptyTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.emptyTtlNanos = emptyTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, PokemonCardResponse value, long currentTime) {
+            return isEmpty(value) ? emptyTtlNanos : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, PokemonCardResponse value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, PokemonCardResponse value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Expire-after-write with a fixed duration, as a variable expiry so that entries restored from disk
+     * can be inserted with their remaining TTL.
+     */
+    private static class FixedExpiry<K, V> implements Expiry<K, V> {
+        private final long ttlNanos;
+
+        FixedExpiry(Duration ttl) {
+            this.ttlNanos = ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(K key, V value, long currentTime) {
+            return ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+            return ttlNanos;
+        }
+
+        @Override
+        public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
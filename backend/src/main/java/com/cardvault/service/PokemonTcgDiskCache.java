@@ -0,0 +1,481 @@
+package com.cardvault.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Disk-backed second level for {@link PokemonTcgCache}, so a restart does not start from a cold cache.
+ * <p>
+ * Entries are appended as gzip-compressed JSON records to segment files under the configured directory;
+ * an in-memory index maps each key to its newest record. Every record carries its write time and the
+ * time it stops being fresh, and is dropped once it is older than the retention period. Segments are
+ * rewritten when enough of their bytes belong to superseded or expired records.
+ * <p>
+ * Record layout: {@code int length, int crc32, long writtenAt, long expiresAt, short keyLength, key,
+ * gzip payload}, where length and the checksum cover everything after the checksum. A torn record at
+ * the end of the last segment is truncated on startup.
+ */
+@Component
+public class PokemonTcgDiskCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PokemonTcgDiskCache.class);
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int LENGTH_BYTES = 4 + 4;
+    private static final int HEADER_BYTES = LENGTH_BYTES + 8 + 8 + 2;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final Duration retention;
+    private final double compactionThreshold;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor writer;
+
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    private final Map<Integer, FileChannel> segments = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicLong deadBytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder droppedWrites = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+
+    // Only touched on the writer thread
+    private int activeSegment;
+    private long activeSize;
+
+    public PokemonTcgDiskCache(@Value("${pokemon.tcg.disk-cache.enabled:false}") boolean enabled,
+                               @Value("${pokemon.tcg.disk-cache.directory:./data/pokemon-tcg-cache}") String directory,
+                               @Value("${pokemon.tcg.disk-cache.max-segment-size:64MB}") DataSize maxSegmentSize,
+                               @Value("${pokemon.tcg.disk-cache.compaction-threshold:0.5}") double compactionThreshold,
+                               @Value("${pokemon.tcg.disk-cache.write-queue-capacity:10000}") int writeQueueCapacity,
+                               @Value("${pokemon.tcg.cache.stale-ttl:PT24H}") Duration retention,
+                               ObjectMapper objectMapper) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.maxSegmentBytes = maxSegmentSize.toBytes();
+        this.compactionThreshold = compactionThreshold;
+        this.retention = retention;
+        this.objectMapper = objectMapper;
+        // Writes are write-behind and best effort: when the queue is full they are dropped, not waited on
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(writeQueueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "pokemon-tcg-disk-cache");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, executor) -> droppedWrites.increment());
+    }
+
+    public record Entry<T>(T value, Instant writtenAt, Instant expiresAt) {
+        public boolean isFresh() {
+            return Instant.now().isBefore(expiresAt);
+        }
+
+        public Duration remainingTtl() {
+            return Duration.between(Instant.now(), expiresAt);
+        }
+    }
+
+    private record Location(int segment, long offset, int length, long writtenAt, long expiresAt) {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            List<Integer> ids = listSegments();
+            for (int i = 0; i < ids.size(); i++) {
+                loadSegment(ids.get(i), i == ids.size() - 1);
+            }
+            activeSegment = ids.isEmpty() ? 1 : ids.get(ids.size() - 1);
+            FileChannel active = openSegment(activeSegment);
+            activeSize = active.size();
+            if (activeSize >= maxSegmentBytes) {
+                rollSegment();
+            }
+            logger.info("Opened Pokemon TCG disk cache at {}: {} entries in {} segments",
+                    directory.toAbsolutePath(), index.size(), segments.size());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open Pokemon TCG disk cache at " + directory, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (FileChannel channel : segments.values()) {
+            try {
+                channel.force(false);
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close disk cache segment: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Read the newest record for the key, or null if there is none within the retention period.
+     */
+    public <T> Entry<T> get(String key, Class<T> type) {
+        if (!enabled) {
+            return null;
+        }
+        Location location = index.get(key);
+        if (location == null || isExpired(location)) {
+            misses.increment();
+            return null;
+        }
+        try {
+            T value = decode(readRecord(location), type);
+            hits.increment();
+            return new Entry<>(value, Instant.ofEpochMilli(location.writtenAt()),
+                    Instant.ofEpochMilli(location.expiresAt()));
+        } catch (IOException | RuntimeException e) {
+            // Segment compacted away underneath us, or a bad record
+            logger.debug("Failed to read disk cache entry {}: {}", key, e.getMessage());
+            misses.increment();
+            return null;
+        }
+    }
+
+    /**
+     * Queue a value to be written, fresh for the given time. Returns immediately.
+     */
+    public void put(String key, Object value, Duration freshFor) {
+        if (!enabled || value == null) {
+            return;
+        }
+        long writtenAt = System.currentTimeMillis();
+        long expiresAt = writtenAt + freshFor.toMillis();
+        writer.execute(() -> {
+            try {
+                append(key, writtenAt, expiresAt, encode(value));
+                writes.increment();
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to write disk cache entry {}: {}", key, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Read every retained entry whose key starts with the prefix, newest first, up to limit entries,
+     * on the writer thread. Used to warm the in-memory cache after a restart.
+     */
+    public <T> void warmLoad(String prefix, Class<T> type, int limit, BiConsumer<String, Entry<T>> consumer) {
+        if (!enabled) {
+            return;
+        }
+        writer.execute(() -> {
+            List<Map.Entry<String, Location>> entries = index.entrySet().stream()
+                    .filter(e -> e.getKey().startsWith(prefix) && !isExpired(e.getValue()))
+                    .sorted(Comparator.comparingLong((Map.Entry<String, Location> e) -> e.getValue().writtenAt())
+                            .reversed())
+                    .limit(limit)
+                    .toList();
+            int loaded = 0;
+            for (Map.Entry<String, Location> e : entries) {
+                Entry<T> entry = get(e.getKey(), type);
+                if (entry != null) {
+                    consumer.accept(e.getKey().substring(prefix.length()), entry);
+                    loaded++;
+                }
+            }
+            logger.info("Warmed {} '{}' entries from the Pokemon TCG disk cache", loaded, prefix);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${pokemon.tcg.disk-cache.compaction-interval:PT1H}")
+    public void scheduledCompaction() {
+        if (enabled) {
+            writer.execute(this::compactIfNeeded);
+        }
+    }
+
+    private void compactIfNeeded() {
+        index.entrySet().removeIf(e -> {
+            if (isExpired(e.getValue())) {
+                deadBytes.addAndGet(e.getValue().length());
+                return true;
+            }
+            return false;
+        });
+
+        long total = totalBytes.get();
+        if (total == 0 || (double) deadBytes.get() / total < compactionThreshold) {
+            return;
+        }
+        try {
+            compact();
+        } catch (IOException e) {
+            logger.error("Disk cache compaction failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Copy every live record into fresh segments, then delete the old ones. Records are copied as raw
+     * bytes, so nothing is decompressed or re-encoded.
+     */
+    private void compact() throws IOException {
+        long before = totalBytes.get();
+        Set<Integer> oldSegments = new HashSet<>(segments.keySet());
+        rollSegment();
+
+        for (Map.Entry<String, Location> e : index.entrySet()) {
+            Location location = e.getValue();
+            if (!oldSegments.contains(location.segment())) {
+                continue;
+            }
+            ByteBuffer record = readRecord(location);
+            record.rewind();
+            Location moved = writeRecord(record, location.writtenAt(), location.expiresAt());
+            index.replace(e.getKey(), location, moved);
+        }
+
+        for (Integer id : oldSegments) {
+            FileChannel channel = segments.remove(id);
+            if (channel != null) {
+                channel.close();
+            }
+            Files.deleteIfExists(segmentPath(id));
+        }
+        totalBytes.set(index.values().stream().mapToLong(Location::length).sum());
+        deadBytes.set(0);
+        compactions.increment();
+        logger.info("Compacted Pokemon TCG disk cache from {} to {} bytes", before, totalBytes.get());
+    }
+
+    private void append(String key, long writtenAt, long expiresAt, byte[] payload) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > Short.MAX_VALUE) {
+            return;
+        }
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + keyBytes.length + payload.length);
+        record.putInt(record.capacity() - LENGTH_BYTES);
+        record.putInt(0);
+        record.putLong(writtenAt);
+        record.putLong(expiresAt);
+        record.putShort((short) keyBytes.length);
+        record.put(keyBytes);
+        record.put(payload);
+
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), LENGTH_BYTES, record.capacity() - LENGTH_BYTES);
+        record.putInt(4, (int) crc.getValue());
+        record.flip();
+
+        Location location = writeRecord(record, writtenAt, expiresAt);
+        Location previous = index.put(key, location);
+        if (previous != null) {
+            deadBytes.addAndGet(previous.length());
+        }
+    }
+
+    private Location writeRecord(ByteBuffer record, long writtenAt, long expiresAt) throws IOException {
+        if (activeSize >= maxSegmentBytes) {
+            rollSegment();
+        }
+        FileChannel channel = segments.get(activeSegment);
+        long offset = activeSize;
+        int length = record.remaining();
+        long position = offset;
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        activeSize = position;
+        totalBytes.addAndGet(length);
+        return new Location(activeSegment, offset, length, writtenAt, expiresAt);
+    }
+
+    private void rollSegment() throws IOException {
+        FileChannel current = segments.get(activeSegment);
+        if (current != null) {
+            current.force(false);
+        }
+        activeSegment++;
+        openSegment(activeSegment);
+        activeSize = 0;
+    }
+
+    private ByteBuffer readRecord(Location location) throws IOException {
+        FileChannel channel = segments.get(location.segment());
+        if (channel == null) {
+            throw new IOException("Segment " + location.segment() + " is gone");
+        }
+        ByteBuffer record = ByteBuffer.allocate(location.length());
+        long position = location.offset();
+        while (record.hasRemaining()) {
+            int read = channel.read(record, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of segment " + location.segment());
+            }
+            position += read;
+        }
+        record.flip();
+        return record;
+    }
+
+    private void loadSegment(int id, boolean last) throws IOException {
+        FileChannel channel = openSegment(id);
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer lengths = ByteBuffer.allocate(LENGTH_BYTES);
+        while (position + HEADER_BYTES <= size) {
+            lengths.clear();
+            channel.read(lengths, position);
+            int length = lengths.getInt(0) + LENGTH_BYTES;
+            if (length < HEADER_BYTES || position + length > size) {
+                break;
+            }
+            Location location = new Location(id, position, length, 0, 0);
+            ByteBuffer record = readRecord(location);
+            CRC32 crc = new CRC32();
+            crc.update(record.array(), LENGTH_BYTES, length - LENGTH_BYTES);
+            if ((int) crc.getValue() != record.getInt(4)) {
+                break;
+            }
+            long writtenAt = record.getLong(8);
+            long expiresAt = record.getLong(16);
+            short keyLength = record.getShort(24);
+            String key = new String(record.array(), HEADER_BYTES, keyLength, StandardCharsets.UTF_8);
+
+            Location loaded = new Location(id, position, length, writtenAt, expiresAt);
+            Location previous = index.get(key);
+            if (previous == null || previous.writtenAt() <= writtenAt) {
+                index.put(key, loaded);
+                if (previous != null) {
+                    deadBytes.addAndGet(previous.length());
+                }
+            } else {
+                deadBytes.addAndGet(length);
+            }
+            totalBytes.addAndGet(length);
+            position += length;
+        }
+
+        if (position < size) {
+            if (last) {
+                logger.warn("Truncating torn record at {} in disk cache segment {}", position, id);
+                channel.truncate(position);
+            } else {
+                logger.warn("Ignoring corrupt tail at {} in disk cache segment {}", position, id);
+                deadBytes.addAndGet(size - position);
+                totalBytes.addAndGet(size - position);
+            }
+        }
+    }
+
+    private FileChannel openSegment(int id) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(id),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segments.put(id, channel);
+        return channel;
+    }
+
+    private List<Integer> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()))
+                    .map(Integer::parseInt)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(int id) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private boolean isExpired(Location location) {
+        return location.writtenAt() + retention.toMillis() < System.currentTimeMillis();
+    }
+
+    private byte[] encode(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private <T> T decode(ByteBuffer record, Class<T> type) throws IOException {
+        int payloadOffset = HEADER_BYTES + record.getShort(24);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(
+                record.array(), payloadOffset, record.limit() - payloadOffset))) {
+            return objectMapper.readValue(in, type);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("entries", index.size());
+        stats.put("segments", segments.size());
+        stats.put("totalBytes", totalBytes.get());
+        stats.put("deadBytes", deadBytes.get());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("writes", writes.sum());
+        stats.put("droppedWrites", droppedWrites.sum());
+        stats.put("compactions", compactions.sum());
+        return stats;
+    }
+}
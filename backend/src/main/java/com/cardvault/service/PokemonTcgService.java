@@ -2,30 +2,92 @@ package com.cardvault.service;
 
 import com.cardvault.dto.PokemonCardDto;
 import com.cardvault.dto.PokemonCardResponse;
+import com.cardvault.dto.PokemonSetResponse;
+import com.cardvault.exception.UpstreamUnavailableException;
+import com.cardvault.util.CircuitBreaker;
+import com.cardvault.util.TokenBucket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class PokemonTcgService {
 
     private static final Logger logger = LoggerFactory.getLogger(PokemonTcgService.class);
     private static final String BASE_URL = "https://api.pokemontcg.io/v2";
+    private static final int MAX_PAGE_SIZE = 250;
 
     @Value("${pokemon.tcg.api.key:}")
     private String apiKey;
 
+    @Value("${pokemon.tcg.batch.chunk-size:100}")
+    private int batchChunkSize;
+
+    @Value("${pokemon.tcg.batch.max-concurrency:4}")
+    private int batchMaxConcurrency;
+
+    @Value("${pokemon.tcg.rate-limit.max-wait:PT2S}")
+    private Duration rateLimitMaxWait;
+
+    @Value("${pokemon.tcg.retry.max-attempts:3}")
+    private int retryMaxAttempts;
+
+    @Value("${pokemon.tcg.retry.base-delay:PT0.5S}")
+    private Duration retryBaseDelay;
+
+    @Value("${pokemon.tcg.retry.max-delay:PT5S}")
+    private Duration retryMaxDelay;
+
     private final RestTemplate restTemplate;
+    private final PokemonTcgCache cache;
+    private final Executor executor;
+    private final TokenBucket rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final CatalogPageDecoder catalogPageDecoder;
 
-    public PokemonTcgService() {
-        this.restTemplate = new RestTemplate();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder staleResponses = new LongAdder();
+
+    public PokemonTcgService(@Qualifier("pokemonTcgRestTemplate") RestTemplate restTemplate,
+                             PokemonTcgCache cache,
+                             @Qualifier("pokemonTcgExecutor") Executor executor,
+                             TokenBucket pokemonTcgRateLimiter,
+                             CircuitBreaker pokemonTcgCircuitBreaker,
+                             CatalogPageDecoder catalogPageDecoder) {
+        this.restTemplate = restTemplate;
+        this.cache = cache;
+        this.executor = executor;
+        this.rateLimiter = pokemonTcgRateLimiter;
+        this.circuitBreaker = pokemonTcgCircuitBreaker;
+        this.catalogPageDecoder = catalogPageDecoder;
     }
 
     private HttpHeaders getHeaders() {
@@ -37,7 +99,28 @@ public class PokemonTcgService {
         return headers;
     }
 
+    /**
+     * Cached search. While the API is unavailable the last good copy of the page is returned, marked stale.
+     */
     public PokemonCardResponse searchCards(String query, int page, int pageSize) {
+        String key = PokemonTcgCache.searchKey(query, page, pageSize);
+        try {
+            return cache.getSearch(key, k -> fetchCards(query, page, pageSize));
+        } catch (UpstreamUnavailableException e) {
+            PokemonCardResponse stale = cache.getStaleSearch(key);
+            if (stale == null) {
+                throw e;
+            }
+            staleResponses.increment();
+            logger.warn("Serving stale search page for '{}': {}", query, e.getMessage());
+            return stale;
+        }
+    }
+
+    /**
+     * Fetch a page of cards directly from the API, bypassing the response cache.
+     */
+    public PokemonCardResponse fetchCards(String query, int page, int pageSize) {
         try {
             UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(BASE_URL + "/cards")
                     .queryParam("page", page)
@@ -50,16 +133,12 @@ public class PokemonTcgService {
             String url = builder.toUriString();
             logger.info("Making request to Pokemon TCG API: {}", url);
 
-            HttpEntity<String> entity = new HttpEntity<>(getHeaders());
-            ResponseEntity<PokemonCardResponse> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    entity,
-                    PokemonCardResponse.class
-            );
+            PokemonCardResponse response = get(url, PokemonCardResponse.class);
 
             logger.info("Successfully fetched cards from Pokemon TCG API");
-            return response.getBody();
+            return response;
+        } catch (UpstreamUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error fetching cards from Pokemon TCG API: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to fetch cards from Pokemon TCG API: " + e.getMessage(), e);
@@ -67,25 +146,331 @@ public class PokemonTcgService {
     }
 
     public PokemonCardDto getCardById(String cardId) {
+        String key = PokemonTcgCache.cardKey(cardId);
         try {
-            String url = BASE_URL + "/cards/" + cardId;
-            HttpEntity<String> entity = new HttpEntity<>(getHeaders());
+            return cache.getCard(key, k -> fetchCardById(cardId));
+        } catch (UpstreamUnavailableException e) {
+            PokemonCardDto stale = cache.getStaleCard(key);
+            if (stale == null) {
+                throw e;
+            }
+            staleResponses.increment();
+            logger.warn("Serving stale card {}: {}", cardId, e.getMessage());
+            return stale;
+        }
+    }
 
-            ResponseEntity<SingleCardResponse> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    entity,
-                    SingleCardResponse.class
-            );
+    private PokemonCardDto fetchCardById(String cardId) {
+        try {
+            String url = BASE_URL + "/cards/" + cardId;
+            SingleCardResponse response = get(url, SingleCardResponse.class);
 
             logger.info("Successfully fetched card {} from Pokemon TCG API", cardId);
-            return response.getBody() != null ? response.getBody().getData() : null;
+            return response != null ? response.getData() : null;
+        } catch (UpstreamUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error fetching card {} from Pokemon TCG API: {}", cardId, e.getMessage());
             throw new RuntimeException("Failed to fetch card from Pokemon TCG API", e);
         }
     }
 
+    /**
+     * GET a Pokemon TCG API url through the rate limiter and circuit breaker. 429, 5xx and I/O failures
+     * are retried with jittered exponential backoff, honouring Retry-After when the API sends one.
+     * Other error responses are returned to the caller as is and do not count against the circuit.
+     */
+    private <T> T get(String url, Class<T> responseType) {
+        ResponseEntity<T> response = get(url, restTemplate.responseEntityExtractor(responseType));
+        return response != null ? response.getBody() : null;
+    }
+
+    private <T> T get(String url, ResponseExtractor<T> responseExtractor) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new UpstreamUnavailableException("Pokemon TCG API is unavailable, please retry later",
+                    circuitBreaker.remainingOpenTime());
+        }
+        try {
+            acquirePermit();
+        } catch (UpstreamUnavailableException e) {
+            // Our own throttling says nothing about the API's health
+            circuitBreaker.release();
+            throw e;
+        }
+
+        HttpEntity<String> entity = new HttpEntity<>(getHeaders());
+        for (int attempt = 1; ; attempt++) {
+            RuntimeException failure;
+            Duration delay;
+            try {
+                T response = restTemplate.execute(url, HttpMethod.GET,
+                        restTemplate.httpEntityCallback(entity), responseExtractor);
+                circuitBreaker.recordSuccess();
+                return response;
+            } catch (HttpStatusCodeException e) {
+                if (!isRetryable(e.getStatusCode())) {
+                    circuitBreaker.recordSuccess();
+                    throw e;
+                }
+                failure = e;
+                delay = retryDelay(attempt, e.getResponseHeaders());
+            } catch (ResourceAccessException e) {
+                failure = e;
+                delay = retryDelay(attempt, null);
+            }
+
+            if (attempt >= retryMaxAttempts || delay.compareTo(retryMaxDelay) > 0) {
+                circuitBreaker.recordFailure();
+                throw new UpstreamUnavailableException("Pokemon TCG API request failed: " + failure.getMessage(),
+                        delay, failure);
+            }
+
+            retries.increment();
+            logger.warn("Pokemon TCG API request failed (attempt {} of {}), retrying in {} ms: {}",
+                    attempt, retryMaxAttempts, delay.toMillis(), failure.getMessage());
+            try {
+                Thread.sleep(delay.toMillis());
+                acquirePermit();
+            } catch (UpstreamUnavailableException e) {
+                // Running out of local rate-limit permits is not another upstream failure
+                circuitBreaker.release();
+                throw e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                circuitBreaker.release();
+                throw new UpstreamUnavailableException("Interrupted while retrying Pokemon TCG API request",
+                        delay, e);
+            }
+        }
+    }
+
+    private void acquirePermit() {
+        try {
+            if (!rateLimiter.tryAcquire(rateLimitMaxWait)) {
+                rateLimited.increment();
+                throw new UpstreamUnavailableException("Pokemon TCG API rate limit reached, please retry later",
+                        rateLimitMaxWait);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamUnavailableException("Interrupted while waiting for Pokemon TCG API rate limit",
+                    rateLimitMaxWait, e);
+        }
+    }
+
+    private static boolean isRetryable(HttpStatusCode status) {
+        return status.value() == 429 || status.is5xxServerError();
+    }
+
+    /**
+     * The Retry-After delay plus a little jitter when the API sent one, otherwise full-jitter
+     * exponential backoff capped at the configured maximum.
+     */
+    private Duration retryDelay(int attempt, HttpHeaders responseHeaders) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long baseMillis = Math.max(1, retryBaseDelay.toMillis());
+
+        Duration retryAfter = parseRetryAfter(responseHeaders);
+        if (retryAfter != null) {
+            return retryAfter.plusMillis(random.nextLong(baseMillis));
+        }
+
+        long ceiling = Math.min(retryMaxDelay.toMillis(), baseMillis << Math.min(attempt - 1, 20));
+        return Duration.ofMillis(random.nextLong(Math.max(1, ceiling)) + 1);
+    }
+
+    private static Duration parseRetryAfter(HttpHeaders headers) {
+        String value = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            if (value.trim().chars().allMatch(Character::isDigit)) {
+                return Duration.ofSeconds(Long.parseLong(value.trim()));
+            }
+            long until = headers.getFirstDate(HttpHeaders.RETRY_AFTER);
+            return Duration.ofMillis(Math.max(0, until - System.currentTimeMillis()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public Map<String, Object> getUpstreamStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("circuitState", circuitBreaker.getState());
+        stats.put("consecutiveFailures", circuitBreaker.getConsecutiveFailures());
+        stats.put("rejectedByCircuit", circuitBreaker.getRejectedCalls());
+        stats.put("rateLimited", rateLimited.sum());
+        stats.put("availableTokens", rateLimiter.availableTokens());
+        stats.put("retries", retries.sum());
+        stats.put("staleResponses", staleResponses.sum());
+        return stats;
+    }
+
+    /**
+     * Fetch a page of cards for the catalog ingest path, streaming the response through the
+     * {@link CatalogPageDecoder} instead of binding it to PokemonCardDto.
+     */
+    public CatalogPageDecoder.CatalogPage fetchCatalogPage(String query, int page, int pageSize) {
+        try {
+            UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(BASE_URL + "/cards")
+                    .queryParam("page", page)
+                    .queryParam("pageSize", pageSize);
+            if (query != null && !query.isEmpty()) {
+                builder.queryParam("q", query);
+            }
+            String url = builder.toUriString();
+            logger.info("Making request to Pokemon TCG API: {}", url);
+
+            return get(url, response -> catalogPageDecoder.decode(response.getBody()));
+        } catch (UpstreamUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error fetching catalog page from Pokemon TCG API: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to fetch cards from Pokemon TCG API: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fetch a page of sets directly from the API, bypassing the response cache.
+     */
+    public PokemonSetResponse fetchSets(int page, int pageSize) {
+        try {
+            String url = UriComponentsBuilder.fromHttpUrl(BASE_URL + "/sets")
+                    .queryParam("page", page)
+                    .queryParam("pageSize", pageSize)
+                    .toUriString();
+            logger.info("Making request to Pokemon TCG API: {}", url);
+
+            return get(url, PokemonSetResponse.class);
+        } catch (UpstreamUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error fetching sets from Pokemon TCG API: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to fetch sets from Pokemon TCG API: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fetch many cards by api id with as few upstream calls as possible.
+     * Ids not already cached are grouped into {@code id:a OR id:b ...} queries of at most one upstream
+     * page each, and those queries run in parallel with bounded concurrency. Ids the API does not know
+     * are absent from the returned map, which preserves the order of the requested ids.
+     */
+    public Map<String, PokemonCardDto> getCardsByIds(Collection<String> cardIds) {
+        // Cards are matched to requested ids by idKey, so ids differing from the API's only in case or
+        // surrounding whitespace are still found
+        Map<String, PokemonCardDto> found = new ConcurrentHashMap<>();
+        Map<String, String> missing = new LinkedHashMap<>();
+        for (String cardId : cardIds) {
+            String key = idKey(cardId);
+            if (key.isEmpty() || found.containsKey(key) || missing.containsKey(key)) {
+                continue;
+            }
+            PokemonCardDto cached = cache.getCardIfPresent(PokemonTcgCache.cardKey(cardId));
+            if (cached != null) {
+                found.put(key, cached);
+            } else {
+                missing.put(key, cardId.trim());
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<String> missingIds = new ArrayList<>(missing.values());
+            int chunkSize = Math.max(1, Math.min(batchChunkSize, MAX_PAGE_SIZE));
+            Queue<List<String>> pending = new ConcurrentLinkedQueue<>();
+            for (int i = 0; i < missingIds.size(); i += chunkSize) {
+                pending.add(missingIds.subList(i, Math.min(i + chunkSize, missingIds.size())));
+            }
+
+            int workers = Math.max(1, Math.min(batchMaxConcurrency, pending.size()));
+            logger.info("Fetching {} cards from Pokemon TCG API in {} chunks with {} workers",
+                    missingIds.size(), pending.size(), workers);
+
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[workers];
+            for (int i = 0; i < workers; i++) {
+                futures[i] = CompletableFuture.runAsync(() -> {
+                    List<String> chunk;
+                    while ((chunk = pending.poll()) != null) {
+                        for (PokemonCardDto card : fetchCardChunk(chunk)) {
+                            cache.putCard(card);
+                            found.put(idKey(card.getId()), card);
+                        }
+                    }
+                }, executor);
+            }
+            try {
+                CompletableFuture.allOf(futures).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        Map<String, PokemonCardDto> result = new LinkedHashMap<>();
+        for (String cardId : cardIds) {
+            PokemonCardDto card = found.get(idKey(cardId));
+            if (card != null) {
+                result.put(cardId, card);
+            }
+        }
+        return result;
+    }
+
+    private static String idKey(String cardId) {
+        return cardId == null ? "" : cardId.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private List<PokemonCardDto> fetchCardChunk(List<String> cardIds) {
+        String query = cardIds.stream()
+                .map(cardId -> "id:" + cardId)
+                .collect(Collectors.joining(" OR "));
+        PokemonCardResponse response = fetchCards(query, 1, cardIds.size());
+        return response != null && response.getData() != null ? response.getData() : List.of();
+    }
+
+    /**
+     * Non-blocking variant of {@link #searchCards}. Cached pages complete immediately on the caller's
+     * thread; misses are fetched on the Pokemon TCG worker pool.
+     */
+    public CompletableFuture<PokemonCardResponse> searchCardsAsync(String query, int page, int pageSize) {
+        PokemonCardResponse cached = cache.findSearch(PokemonTcgCache.searchKey(query, page, pageSize));
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return supplyAsync(() -> searchCards(query, page, pageSize));
+    }
+
+    public CompletableFuture<PokemonCardDto> getCardByIdAsync(String cardId) {
+        PokemonCardDto cached = cache.findCard(PokemonTcgCache.cardKey(cardId));
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return supplyAsync(() -> getCardById(cardId));
+    }
+
+    public CompletableFuture<PokemonCardResponse> searchCardsByNameAsync(String name, int page, int pageSize) {
+        return searchCardsAsync(nameQuery(name), page, pageSize);
+    }
+
+    public CompletableFuture<PokemonCardResponse> getCardsBySetAsync(String setId, int page, int pageSize) {
+        return searchCardsAsync(setQuery(setId), page, pageSize);
+    }
+
+    public CompletableFuture<PokemonCardResponse> getCardsByTypeAsync(String type, int page, int pageSize) {
+        return searchCardsAsync(typeQuery(type), page, pageSize);
+    }
+
+    public CompletableFuture<PokemonCardResponse> getCardsByRarityAsync(String rarity, int page, int pageSize) {
+        return searchCardsAsync(rarityQuery(rarity), page, pageSize);
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, executor);
+    }
+
     private static class SingleCardResponse {
         private PokemonCardDto data;
 
@@ -102,25 +487,38 @@ public class PokemonTcgService {
     }
 
     public PokemonCardResponse searchCardsByName(String name, int page, int pageSize) {
-        // Pokemon TCG API uses case-insensitive partial matching
-        // Format: name:cardname (no wildcards needed for partial match)
-        String query = "name:" + name;
+        String query = nameQuery(name);
         logger.info("Searching for cards with query: {}", query);
         return searchCards(query, page, pageSize);
     }
 
     public PokemonCardResponse getCardsBySet(String setId, int page, int pageSize) {
-        String query = "set.id:" + setId;
-        return searchCards(query, page, pageSize);
+        return searchCards(setQuery(setId), page, pageSize);
     }
 
     public PokemonCardResponse getCardsByType(String type, int page, int pageSize) {
-        String query = "types:" + type;
-        return searchCards(query, page, pageSize);
+        return searchCards(typeQuery(type), page, pageSize);
     }
 
     public PokemonCardResponse getCardsByRarity(String rarity, int page, int pageSize) {
-        String query = "rarity:\"" + rarity + "\"";
-        return searchCards(query, page, pageSize);
+        return searchCards(rarityQuery(rarity), page, pageSize);
+    }
+
+    private static String nameQuery(String name) {
+        // Pokemon TCG API uses case-insensitive partial matching
+        // Format: name:cardname (no wildcards needed for partial match)
+        return "name:" + name;
+    }
+
+    private static String setQuery(String setId) {
+        return "set.id:" + setId;
+    }
+
+    private static String typeQuery(String type) {
+        return "types:" + type;
+    }
+
+    private static String rarityQuery(String rarity) {
+        return "rarity:\"" + rarity + "\"";
     }
 }
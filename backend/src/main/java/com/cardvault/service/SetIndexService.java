@@ -0,0 +1,165 @@
+package com.cardvault.service;
+
+import com.cardvault.dto.PokemonCardDto;
+import com.cardvault.dto.PokemonSetDto;
+import com.cardvault.dto.PokemonSetResponse;
+import com.cardvault.model.CatalogSet;
+import com.cardvault.repository.CatalogSetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory index of all Pokemon TCG sets, ordered by release date.
+ * Loaded from the card_sets table when the catalog mirror has been synced, otherwise from the Pokemon TCG
+ * API, and refreshed on a schedule. The index is replaced as a whole, so readers never see a partial load.
+ */
+@Service
+public class SetIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SetIndexService.class);
+    private static final int PAGE_SIZE = 250;
+    private static final DateTimeFormatter UPDATED_AT = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");
+
+    private final CatalogSetRepository catalogSetRepository;
+    private final PokemonTcgService pokemonTcgService;
+
+    private volatile SetIndex index;
+
+    @Autowired
+    public SetIndexService(CatalogSetRepository catalogSetRepository, PokemonTcgService pokemonTcgService) {
+        this.catalogSetRepository = catalogSetRepository;
+        this.pokemonTcgService = pokemonTcgService;
+    }
+
+    private record SetIndex(List<PokemonSetDto> sets, Map<String, PokemonSetDto> byId) {
+    }
+
+    public List<PokemonSetDto> getSets() {
+        return index().sets();
+    }
+
+    public Optional<PokemonSetDto> getSet(String setId) {
+        return Optional.ofNullable(index().byId().get(setId));
+    }
+
+    public PokemonSetResponse getSetResponse() {
+        List<PokemonSetDto> sets = getSets();
+        PokemonSetResponse response = new PokemonSetResponse();
+        response.setData(sets);
+        response.setPage(1);
+        response.setPageSize(sets.size());
+        response.setCount(sets.size());
+        response.setTotalCount(sets.size());
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${pokemon.sets.refresh-interval:PT6H}",
+            initialDelayString = "${pokemon.sets.refresh-interval:PT6H}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Keep serving the previous index
+            logger.warn("Set index refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the index from the mirror, or from the API if the mirror holds no sets.
+     */
+    public synchronized void refresh() {
+        List<PokemonSetDto> sets = catalogSetRepository.findAll().stream()
+                .map(this::toDto)
+                .toList();
+        String source = "catalog mirror";
+        if (sets.isEmpty()) {
+            sets = fetchSets();
+            source = "Pokemon TCG API";
+        }
+
+        List<PokemonSetDto> ordered = new ArrayList<>(sets);
+        // API release dates are yyyy/MM/dd, so string order is chronological
+        ordered.sort(Comparator.comparing(PokemonSetDto::getReleaseDate,
+                        Comparator.nullsLast(Comparator.<String>naturalOrder()))
+                .thenComparing(PokemonSetDto::getId));
+        Map<String, PokemonSetDto> byId = new LinkedHashMap<>();
+        ordered.forEach(set -> byId.put(set.getId(), set));
+
+        index = new SetIndex(List.copyOf(ordered), Map.copyOf(byId));
+        logger.info("Loaded {} sets into the set index from the {}", ordered.size(), source);
+    }
+
+    private SetIndex index() {
+        SetIndex current = index;
+        if (current == null) {
+            synchronized (this) {
+                if (index == null) {
+                    refresh();
+                }
+                current = index;
+            }
+        }
+        return current;
+    }
+
+    private List<PokemonSetDto> fetchSets() {
+        List<PokemonSetDto> sets = new ArrayList<>();
+        int page = 1;
+        int totalCount;
+        do {
+            PokemonSetResponse response = pokemonTcgService.fetchSets(page, PAGE_SIZE);
+            if (response == null || response.getData() == null || response.getData().isEmpty()) {
+                break;
+            }
+            response.getData().stream()
+                    .filter(set -> set.getId() != null)
+                    .forEach(sets::add);
+            totalCount = response.getTotalCount();
+            page++;
+        } while (sets.size() < totalCount);
+        return sets;
+    }
+
+    private PokemonSetDto toDto(CatalogSet set) {
+        PokemonSetDto dto = new PokemonSetDto();
+        dto.setId(set.getId());
+        dto.setName(set.getName());
+        dto.setSeries(set.getSeries());
+        dto.setPrintedTotal(set.getPrintedTotal());
+        dto.setTotal(set.getTotal());
+        dto.setPtcgoCode(set.getPtcgoCode());
+        if (set.getSymbolUrl() != null || set.getLogoUrl() != null) {
+            PokemonSetDto.SetImages images = new PokemonSetDto.SetImages();
+            images.setSymbol(set.getSymbolUrl());
+            images.setLogo(set.getLogoUrl());
+            dto.setImages(images);
+        }
+        if (set.getLegalityUnlimited() != null || set.getLegalityStandard() != null
+                || set.getLegalityExpanded() != null) {
+            PokemonCardDto.Legalities legalities = new PokemonCardDto.Legalities();
+            legalities.setUnlimited(set.getLegalityUnlimited());
+            legalities.setStandard(set.getLegalityStandard());
+            legalities.setExpanded(set.getLegalityExpanded());
+            dto.setLegalities(legalities);
+        }
+        // Same formats as the upstream API
+        if (set.getReleaseDate() != null) {
+            dto.setReleaseDate(set.getReleaseDate().format(CardCatalogService.API_DATE));
+        }
+        if (set.getUpdatedAt() != null) {
+            dto.setUpdatedAt(set.getUpdatedAt().format(UPDATED_AT));
+        }
+        return dto;
+    }
+}
@@ -1,48 +1,152 @@
 package com.cardvault.service;
 
+import com.cardvault.dto.CollectionSummaryResponse;
+import com.cardvault.dto.UserCardView;
 import com.cardvault.model.Card;
 import com.cardvault.model.CardCondition;
 import com.cardvault.model.User;
 import com.cardvault.model.UserCard;
+import com.cardvault.model.UserCollectionSummary;
 import com.cardvault.repository.CardRepository;
 import com.cardvault.repository.CardConditionRepository;
+import com.cardvault.repository.CollectionFilter;
+import com.cardvault.repository.CollectionSort;
 import com.cardvault.repository.UserCardRepository;
+import com.cardvault.repository.UserCardRepositoryCustom.KeyedView;
+import com.cardvault.repository.UserCollectionSummaryRepository;
 import com.cardvault.repository.UserRepository;
+import com.cardvault.util.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 
 @Service
 @Transactional
 public class UserCardService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int STREAM_BATCH_SIZE = 500;
+
     private final UserCardRepository userCardRepository;
     private final UserRepository userRepository;
     private final CardRepository cardRepository;
     private final CardConditionRepository cardConditionRepository;
+    private final CompactCardCatalog compactCardCatalog;
+    private final UserCollectionSummaryRepository summaryRepository;
+    private final TransactionTemplate batchTransaction;
 
     @Autowired
     public UserCardService(UserCardRepository userCardRepository,
                           UserRepository userRepository,
                           CardRepository cardRepository,
-                          CardConditionRepository cardConditionRepository) {
+                          CardConditionRepository cardConditionRepository,
+                          CompactCardCatalog compactCardCatalog,
+                          UserCollectionSummaryRepository summaryRepository,
+                          PlatformTransactionManager transactionManager) {
         this.userCardRepository = userCardRepository;
         this.userRepository = userRepository;
         this.cardRepository = cardRepository;
         this.cardConditionRepository = cardConditionRepository;
+        this.compactCardCatalog = compactCardCatalog;
+        this.summaryRepository = summaryRepository;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchTransaction.setReadOnly(true);
     }
 
     public List<UserCard> getUserCollection(UUID userId) {
         return userCardRepository.findByUserId(userId);
     }
 
-    public List<UserCard> getUserCollectionSorted(UUID userId) {
-        return userCardRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    /**
+     * Pass a user's whole collection, newest first, to the action together with each row's card. Rows are
+     * read a keyset page at a time, each page and its cards in its own short transaction, so memory use does
+     * not grow with the collection and no connection is held while the action writes to a slow client.
+     * Rows added while the collection is streamed sort before the first page and are left out.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void streamCollection(UUID userId, BiConsumer<UserCardView, Card> action) {
+        CollectionFilter all = new CollectionFilter(null, null, null);
+        List<String> after = null;
+        while (true) {
+            List<String> cursor = after;
+            StreamBatch batch = batchTransaction.execute(status -> {
+                List<KeyedView> rows = userCardRepository.findCollectionPage(
+                        userId, CollectionSort.CREATED, all, cursor, STREAM_BATCH_SIZE);
+                return new StreamBatch(rows, compactCardCatalog.findAllById(
+                        rows.stream().map(row -> row.view().cardId()).toList()));
+            });
+            batch.rows().forEach(row -> action.accept(row.view(), batch.cards().get(row.view().cardId())));
+            if (batch.rows().size() < STREAM_BATCH_SIZE) {
+                return;
+            }
+            KeyedView last = batch.rows().get(batch.rows().size() - 1);
+            after = new ArrayList<>(last.sortKey());
+            after.add(last.view().id().toString());
+        }
+    }
+
+    private record StreamBatch(List<KeyedView> rows, Map<UUID, Card> cards) {
+    }
+
+    /**
+     * A page of collection rows and the cursor of the next page, or null if this is the last one.
+     */
+    public record CollectionPage(List<UserCardView> rows, String nextCursor) {
+    }
+
+    /**
+     * One page of a user's collection in the given sort order. The cursor names the sort it was issued for,
+     * so it cannot be replayed against a different one.
+     */
+    @Transactional(readOnly = true)
+    public CollectionPage getCollectionPage(UUID userId, String sort, CollectionFilter filter,
+                                            String cursor, int size) {
+        CollectionSort order = CollectionSort.fromParam(sort);
+        int keyCount = order.getKeys().size();
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        List<String> after = null;
+        if (cursor != null) {
+            List<String> decoded = PageCursor.decode(cursor, keyCount + 2);
+            if (!order.name().equals(decoded.get(0)) || decoded.contains(null)) {
+                throw new RuntimeException("Invalid page cursor");
+            }
+            after = decoded.subList(1, decoded.size());
+            try {
+                UUID.fromString(after.get(keyCount));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Invalid page cursor");
+            }
+        }
+
+        // One row past the limit tells whether there is a next page
+        List<KeyedView> rows = userCardRepository.findCollectionPage(userId, order, filter, after, limit + 1);
+        List<UserCardView> views = new ArrayList<>(Math.min(rows.size(), limit));
+        for (int i = 0; i < rows.size() && i < limit; i++) {
+            views.add(rows.get(i).view());
+        }
+        if (rows.size() <= limit) {
+            return new CollectionPage(views, null);
+        }
+        KeyedView last = rows.get(limit - 1);
+        List<String> keys = new ArrayList<>(keyCount + 2);
+        keys.add(order.name());
+        keys.addAll(last.sortKey());
+        keys.add(last.view().id().toString());
+        return new CollectionPage(views, PageCursor.encode(keys.toArray(String[]::new)));
     }
 
     public Optional<UserCard> getUserCardById(UUID id) {
@@ -117,30 +221,50 @@ public class UserCardService {
         userCardRepository.deleteById(id);
     }
 
-    public Long getCollectionCount(UUID userId) {
-        return userCardRepository.countByUserId(userId);
-    }
-
-    public Long getTotalCardQuantity(UUID userId) {
-        Long total = userCardRepository.sumQuantityByUserId(userId);
-        return total != null ? total : 0L;
-    }
-
-    public BigDecimal getTotalCollectionValue(UUID userId) {
-        BigDecimal total = userCardRepository.sumTotalValueByUserId(userId);
-        return total != null ? total : BigDecimal.ZERO;
+    /**
+     * Collection, achievement and wishlist totals, read from the user's trigger-maintained summary row.
+     * A user who has never added anything has no row yet.
+     */
+    @Transactional(readOnly = true)
+    public CollectionSummaryResponse getCollectionSummary(UUID userId) {
+        UserCollectionSummary row = summaryRepository.findById(userId).orElse(null);
+        if (row == null) {
+            return new CollectionSummaryResponse(0L, 0L, BigDecimal.ZERO, 0L, 0L, 0L, 0L);
+        }
+        return new CollectionSummaryResponse(row.getUniqueCards(), row.getTotalCards(), row.getTotalValue(),
+                row.getTotalSets(), row.getAchievementCount(), row.getTotalPoints(), row.getWishlistCount());
     }
 
-    public List<UserCard> getTopValueCards(UUID userId) {
-        return userCardRepository.findTopValueCardsByUserId(userId);
+    /**
+     * The user's most valuable rows by current value times quantity, unpriced rows last. This is the first
+     * page of the by-value listing, so the database stops after {@code limit} rows of the value index.
+     */
+    @Transactional(readOnly = true)
+    public List<UserCardView> getTopValueCards(UUID userId, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        List<KeyedView> rows = userCardRepository.findCollectionPage(userId, CollectionSort.VALUE,
+                new CollectionFilter(null, null, null), null, Math.min(limit, MAX_PAGE_SIZE));
+        return rows.stream().map(KeyedView::view).toList();
     }
 
-    public List<UserCard> getCardsByRarity(UUID userId, String rarity) {
-        return userCardRepository.findByUserIdAndRarity(userId, rarity);
+    /**
+     * The user's rows of one rarity, newest first. Filtered on the rarity's lookup key in one query.
+     */
+    @Transactional(readOnly = true)
+    public List<UserCardView> getCardsByRarity(UUID userId, String rarity) {
+        return userCardRepository.findCollectionViews(userId, CollectionSort.CREATED,
+                new CollectionFilter(rarity, null, null));
     }
 
-    public List<UserCard> getCardsBySet(UUID userId, String setName) {
-        return userCardRepository.findByUserIdAndSetName(userId, setName);
+    /**
+     * The user's rows of one set, newest first. Filtered on the set name's lookup key in one query.
+     */
+    @Transactional(readOnly = true)
+    public List<UserCardView> getCardsBySet(UUID userId, String setName) {
+        return userCardRepository.findCollectionViews(userId, CollectionSort.CREATED,
+                new CollectionFilter(null, setName, null));
     }
 
     public UserCard updateCardQuantity(UUID userCardId, Integer newQuantity) {
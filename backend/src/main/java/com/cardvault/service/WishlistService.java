@@ -1,7 +1,6 @@
 package com.cardvault.service;
 
 import com.cardvault.dto.AddToWishlistRequest;
-import com.cardvault.dto.PokemonCardDto;
 import com.cardvault.model.Card;
 import com.cardvault.model.User;
 import com.cardvault.model.Wishlist;
@@ -12,10 +11,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -31,7 +31,10 @@ public class WishlistService {
     private final CardRepository cardRepository;
 
     @Autowired
-    private PokemonTcgService pokemonTcgService;
+    private CardCatalogService cardCatalogService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     @Autowired
     public WishlistService(WishlistRepository wishlistRepository,
@@ -75,18 +78,22 @@ public class WishlistService {
         return wishlistRepository.save(wishlist);
     }
 
+    /**
+     * Runs outside the class-wide transaction: the card is resolved first, as in
+     * {@link CollectionService#addToCollection}, and only the wishlist write is transactional.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Wishlist addToWishlistByApiId(UUID userId, AddToWishlistRequest request) {
         logger.info("Adding card {} to wishlist for user {}", request.getCardApiId(), userId);
 
+        Card card = cardCatalogService.findOrCreateByApiId(request.getCardApiId());
+        return transactionTemplate.execute(status -> addToWishlist(userId, card, request));
+    }
+
+    private Wishlist addToWishlist(UUID userId, Card card, AddToWishlistRequest request) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        Card card = cardRepository.findByApiId(request.getCardApiId())
-                .orElseGet(() -> {
-                    PokemonCardDto pokemonCard = pokemonTcgService.getCardById(request.getCardApiId());
-                    return createCardFromPokemonDto(pokemonCard);
-                });
-
         if (wishlistRepository.existsByUserIdAndCardId(userId, card.getId())) {
             throw new RuntimeException("Card already in wishlist");
         }
@@ -102,57 +109,6 @@ public class WishlistService {
         return wishlistRepository.save(wishlist);
     }
 
-    private Card createCardFromPokemonDto(PokemonCardDto dto) {
-        Card card = new Card();
-        card.setApiId(dto.getId());
-        card.setName(dto.getName());
-        card.setSetName(dto.getSet() != null ? dto.getSet().getName() : null);
-        card.setSetSeries(dto.getSet() != null ? dto.getSet().getSeries() : null);
-        card.setCardNumber(dto.getNumber());
-        card.setRarity(dto.getRarity());
-        card.setSupertype(dto.getSupertype());
-        card.setSubtypes(dto.getSubtypes() != null ? String.join(",", dto.getSubtypes()) : null);
-        if (dto.getHp() != null) {
-            try {
-                card.setHp(Integer.parseInt(dto.getHp()));
-            } catch (NumberFormatException e) {
-                logger.warn("Failed to parse HP value: {}", dto.getHp());
-                card.setHp(null);
-            }
-        }
-        card.setArtist(dto.getArtist());
-        card.setImageUrl(dto.getImages() != null ? dto.getImages().getLarge() : null);
-        card.setSmallImageUrl(dto.getImages() != null ? dto.getImages().getSmall() : null);
-
-        if (dto.getTcgplayer() != null && dto.getTcgplayer().getPrices() != null) {
-            BigDecimal marketPrice = extractMarketPrice(dto.getTcgplayer().getPrices());
-            card.setMarketPrice(marketPrice);
-        }
-
-        if (dto.getSet() != null && dto.getSet().getReleaseDate() != null) {
-            try {
-                card.setReleaseDate(LocalDate.parse(dto.getSet().getReleaseDate()));
-            } catch (Exception e) {
-                logger.warn("Failed to parse release date: {}", dto.getSet().getReleaseDate());
-            }
-        }
-
-        return cardRepository.save(card);
-    }
-
-    private BigDecimal extractMarketPrice(PokemonCardDto.TcgPlayer.Prices prices) {
-        if (prices.getHolofoil() != null && prices.getHolofoil().getMarket() != null) {
-            return BigDecimal.valueOf(prices.getHolofoil().getMarket());
-        }
-        if (prices.getReverseHolofoil() != null && prices.getReverseHolofoil().getMarket() != null) {
-            return BigDecimal.valueOf(prices.getReverseHolofoil().getMarket());
-        }
-        if (prices.getNormal() != null && prices.getNormal().getMarket() != null) {
-            return BigDecimal.valueOf(prices.getNormal().getMarket());
-        }
-        return BigDecimal.ZERO;
-    }
-
     public Wishlist updateWishlistItem(UUID id, Wishlist wishlistDetails) {
         Wishlist wishlist = wishlistRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Wishlist item not found with id: " + id));
@@ -0,0 +1,36 @@
+package com.cardvault.util;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Runs an action when the async processing of the current request completes. A request whose client went away
+ * mid-body may only complete once its async timeout expires, so the action should also run where the body ends
+ * and tolerate being called twice.
+ */
+public final class AsyncRequestCompletion {
+
+    private AsyncRequestCompletion() {
+    }
+
+    public static void register(String key, Runnable action) {
+        RequestAttributes attributes = RequestContextHolder.currentRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            action.run();
+            return;
+        }
+        WebAsyncUtils.getAsyncManager(servletAttributes.getRequest())
+                .registerCallableInterceptor(key, new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                        action.run();
+                    }
+                });
+    }
+}
@@ -0,0 +1,69 @@
+package com.cardvault.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 reader, the counterpart of {@link CsvWriter}: quoted fields may hold commas, doubled
+ * quotes and line breaks, and rows may end with CRLF or LF. Reads one row at a time.
+ */
+public final class CsvReader {
+
+    private final Reader in;
+    private int next;
+
+    public CsvReader(Reader in) throws IOException {
+        this.in = in;
+        this.next = in.read();
+        // Spreadsheet exports often start with a byte order mark
+        if (next == '\uFEFF') {
+            next = in.read();
+        }
+    }
+
+    /**
+     * The next row's fields, or null at the end of the input.
+     */
+    public List<String> readRow() throws IOException {
+        if (next < 0) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            int c = next;
+            next = in.read();
+            if (quoted) {
+                if (c < 0) {
+                    throw new RuntimeException("Unterminated quoted CSV field");
+                }
+                if (c == '"') {
+                    if (next == '"') {
+                        field.append('"');
+                        next = in.read();
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c < 0) {
+                if (c == '\r' && next == '\n') {
+                    next = in.read();
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.cardvault.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes a JSON array to a stream one element at a time, so a response of any length is serialized in
+ * constant memory. Elements are buffered by the generator and not flushed one by one.
+ */
+public final class JsonArrayStream {
+
+    private final JsonGenerator generator;
+    private final ObjectWriter writer;
+
+    public JsonArrayStream(ObjectMapper mapper, Class<?> elementType, OutputStream out) throws IOException {
+        this.generator = mapper.getFactory().createGenerator(out);
+        this.writer = mapper.writerFor(elementType).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        generator.writeStartArray();
+    }
+
+    public void write(Object element) {
+        try {
+            writer.writeValue(generator, element);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Close the array. Not called when writing failed, so a broken response is not mistaken for a whole one.
+     */
+    public void finish() throws IOException {
+        generator.writeEndArray();
+        generator.flush();
+    }
+}
@@ -0,0 +1,45 @@
+package com.cardvault.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque continuation token for keyset pagination: the sort key values of the last row of a page,
+ * as a URL-safe base64 JSON array. Clients pass it back unchanged to fetch the next page.
+ */
+public final class PageCursor {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private PageCursor() {
+    }
+
+    public static String encode(String... keys) {
+        try {
+            byte[] json = MAPPER.writeValueAsBytes(keys);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode page cursor", e);
+        }
+    }
+
+    /**
+     * Decode a token holding exactly {@code keyCount} keys.
+     */
+    public static List<String> decode(String token, int keyCount) {
+        try {
+            String[] keys = MAPPER.readValue(Base64.getUrlDecoder().decode(token), String[].class);
+            if (keys.length == keyCount) {
+                return Arrays.asList(keys);
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            // Reported below
+        }
+        throw new RuntimeException("Invalid page cursor");
+    }
+}
@@ -0,0 +1,47 @@
+package com.cardvault.util;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Overrides spring.mvc.async.request-timeout for the current request. That timeout is sized for the
+ * upstream Pokemon calls; a StreamingResponseBody writing a whole collection to a slow client needs
+ * longer, and would otherwise be cut off mid-body once it expires.
+ */
+public final class StreamingTimeout {
+
+    private static final String INTERCEPTOR_KEY = StreamingTimeout.class.getName();
+
+    private StreamingTimeout() {
+    }
+
+    /**
+     * Apply the timeout to the async processing the current handler is about to start. Zero or a
+     * negative duration means no timeout.
+     */
+    public static void apply(Duration timeout) {
+        RequestAttributes attributes = RequestContextHolder.currentRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return;
+        }
+        long millis = timeout.isNegative() || timeout.isZero() ? -1 : timeout.toMillis();
+        WebAsyncUtils.getAsyncManager(servletAttributes.getRequest())
+                .registerCallableInterceptor(INTERCEPTOR_KEY, new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                        // Runs before the async request starts, which is when its timeout is applied
+                        if (request instanceof AsyncWebRequest asyncRequest) {
+                            asyncRequest.setTimeout(millis);
+                        }
+                    }
+                });
+    }
+}
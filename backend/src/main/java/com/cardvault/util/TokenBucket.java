@@ -0,0 +1,60 @@
+package com.cardvault.util;
+
+import java.time.Duration;
+
+/**
+ * Token bucket rate limiter. Tokens refill continuously at a fixed rate up to the bucket capacity,
+ * which bounds the burst size.
+ */
+public class TokenBucket {
+
+    private final long capacity;
+    private final double tokensPerNano;
+
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(long capacity, double tokensPerSecond) {
+        if (capacity <= 0 || tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("Token bucket capacity and rate must be positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000.0;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Take a token, waiting up to maxWait for one to become available.
+     * Returns false without taking a token if none would be available in time.
+     */
+    public boolean tryAcquire(Duration maxWait) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            refill();
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+            if (waitNanos > maxWait.toNanos()) {
+                return false;
+            }
+            // Reserve the token now so concurrent callers queue up behind us instead of racing for it
+            tokens -= 1;
+        }
+        Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+        return true;
+    }
+
+    public synchronized double availableTokens() {
+        refill();
+        return tokens;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
@@ -5,6 +5,9 @@
 -- Enable UUID extension if not already enabled
 CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
 
+-- Trigram matching for substring card search
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
 -- ========================================
 -- Table: users
 -- Stores user account information
@@ -42,6 +45,27 @@ INSERT INTO card_conditions (name, description, value_multiplier) VALUES
     ('Poor', 'Significant damage or creasing', 0.30)
 ON CONFLICT (name) DO NOTHING;
 
+-- ========================================
+-- Tables: card_set_names, card_rarities, card_types
+-- Lookup tables for the card dimensions, keyed by smallint.
+-- Cards only store the keys, which the application assigns in batches when it writes cards.
+-- ========================================
+CREATE TABLE IF NOT EXISTS card_set_names (
+    id SMALLSERIAL PRIMARY KEY,
+    name VARCHAR(100) UNIQUE NOT NULL,
+    series VARCHAR(100)
+);
+
+CREATE TABLE IF NOT EXISTS card_rarities (
+    id SMALLSERIAL PRIMARY KEY,
+    name VARCHAR(50) UNIQUE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS card_types (
+    id SMALLSERIAL PRIMARY KEY,
+    name VARCHAR(50) UNIQUE NOT NULL
+);
+
 -- ========================================
 -- Table: cards
 -- card data (from Pokemon TCG API)
@@ -50,11 +74,11 @@ CREATE TABLE IF NOT EXISTS cards (
     id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
     api_id VARCHAR(100) UNIQUE,
     name VARCHAR(100) NOT NULL,
-    set_name VARCHAR(100),
-    set_series VARCHAR(100),
+    set_id VARCHAR(50),
     card_number VARCHAR(50),
-    rarity VARCHAR(50),
-    card_type VARCHAR(50),
+    set_name_id SMALLINT REFERENCES card_set_names(id),
+    rarity_id SMALLINT REFERENCES card_rarities(id),
+    card_type_id SMALLINT REFERENCES card_types(id),
     supertype VARCHAR(50),
     subtypes TEXT,
     hp INTEGER,
@@ -62,11 +86,45 @@ CREATE TABLE IF NOT EXISTS cards (
     image_url TEXT,
     small_image_url TEXT,
     market_price DECIMAL(10, 2),
+    price_updated_at DATE,
     release_date DATE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- ========================================
+-- Table: card_sets
+-- Pokemon TCG API sets and their catalog sync watermarks
+-- ========================================
+CREATE TABLE IF NOT EXISTS card_sets (
+    id VARCHAR(50) PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    series VARCHAR(100),
+    printed_total INTEGER,
+    total INTEGER,
+    ptcgo_code VARCHAR(20),
+    release_date DATE,
+    symbol_url TEXT,
+    logo_url TEXT,
+    legality_unlimited VARCHAR(20),
+    legality_standard VARCHAR(20),
+    legality_expanded VARCHAR(20),
+    updated_at TIMESTAMP,
+    synced_updated_at TIMESTAMP,
+    synced_at TIMESTAMP,
+    prices_synced_at DATE
+);
+
+-- ========================================
+-- Table: card_details
+-- Full Pokemon TCG API card documents for the local catalog mirror
+-- ========================================
+CREATE TABLE IF NOT EXISTS card_details (
+    api_id VARCHAR(100) PRIMARY KEY REFERENCES cards(api_id) ON DELETE CASCADE,
+    data JSONB NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
 -- ========================================
 -- Table: user_cards
 -- User's card collection inventory
@@ -86,6 +144,8 @@ CREATE TABLE IF NOT EXISTS user_cards (
     grading_company VARCHAR(50),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- Sort key of the by-value listings; unpriced rows count as zero
+    total_value NUMERIC GENERATED ALWAYS AS (COALESCE(current_value * quantity, 0)) STORED,
     UNIQUE(user_id, card_id, condition_id)
 );
 
@@ -141,15 +201,158 @@ CREATE TABLE IF NOT EXISTS wishlist (
     UNIQUE(user_id, card_id)
 );
 
+-- ========================================
+-- Tables: user_collection_summaries, user_collection_sets
+-- Per-user totals behind the dashboard summary, kept current by the
+-- summary triggers below; the set counts let the number of sets be
+-- maintained without rescanning the collection
+-- ========================================
+CREATE TABLE IF NOT EXISTS user_collection_summaries (
+    user_id UUID PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    unique_cards BIGINT NOT NULL DEFAULT 0,
+    total_cards BIGINT NOT NULL DEFAULT 0,
+    total_value NUMERIC NOT NULL DEFAULT 0,
+    total_sets BIGINT NOT NULL DEFAULT 0,
+    achievement_count BIGINT NOT NULL DEFAULT 0,
+    total_points BIGINT NOT NULL DEFAULT 0,
+    wishlist_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS user_collection_sets (
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    set_name_id SMALLINT NOT NULL REFERENCES card_set_names(id),
+    card_count BIGINT NOT NULL,
+    PRIMARY KEY (user_id, set_name_id)
+);
+
+
+-- ========================================
+-- Upgrades for existing databases
+-- ========================================
+ALTER TABLE cards ADD COLUMN IF NOT EXISTS set_id VARCHAR(50);
+ALTER TABLE cards ADD COLUMN IF NOT EXISTS price_updated_at DATE;
+ALTER TABLE cards ADD COLUMN IF NOT EXISTS set_name_id SMALLINT REFERENCES card_set_names(id);
+ALTER TABLE cards ADD COLUMN IF NOT EXISTS rarity_id SMALLINT REFERENCES card_rarities(id);
+ALTER TABLE cards ADD COLUMN IF NOT EXISTS card_type_id SMALLINT REFERENCES card_types(id);
+ALTER TABLE card_sets ADD COLUMN IF NOT EXISTS prices_synced_at DATE;
+ALTER TABLE card_sets ADD COLUMN IF NOT EXISTS ptcgo_code VARCHAR(20);
+ALTER TABLE card_sets ADD COLUMN IF NOT EXISTS symbol_url TEXT;
+ALTER TABLE card_sets ADD COLUMN IF NOT EXISTS logo_url TEXT;
+ALTER TABLE card_sets ADD COLUMN IF NOT EXISTS legality_unlimited VARCHAR(20);
+ALTER TABLE card_sets ADD COLUMN IF NOT EXISTS legality_standard VARCHAR(20);
+ALTER TABLE card_sets ADD COLUMN IF NOT EXISTS legality_expanded VARCHAR(20);
+ALTER TABLE user_cards ADD COLUMN IF NOT EXISTS total_value NUMERIC
+    GENERATED ALWAYS AS (COALESCE(current_value * quantity, 0)) STORED;
+
+-- Move the set name, series, rarity and type of existing cards into the lookup tables, then drop the
+-- VARCHAR columns along with the trigger that kept the keys in step and the views that read them (recreated
+-- below). Runs once: later the columns are gone.
+DROP TRIGGER IF EXISTS set_cards_lookup_keys ON cards;
+DROP FUNCTION IF EXISTS set_card_lookup_keys();
+DROP FUNCTION IF EXISTS card_set_name_key(TEXT, TEXT);
+DROP FUNCTION IF EXISTS card_rarity_key(TEXT);
+DROP FUNCTION IF EXISTS card_type_key(TEXT);
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = 'cards' AND column_name = 'set_name') THEN
+        INSERT INTO card_set_names (name, series)
+        SELECT c.set_name, MAX(c.set_series) FROM cards c
+        WHERE c.set_name IS NOT NULL AND NOT EXISTS (SELECT 1 FROM card_set_names s WHERE s.name = c.set_name)
+        GROUP BY c.set_name
+        ON CONFLICT (name) DO NOTHING;
+        INSERT INTO card_rarities (name)
+        SELECT DISTINCT c.rarity FROM cards c
+        WHERE c.rarity IS NOT NULL AND NOT EXISTS (SELECT 1 FROM card_rarities r WHERE r.name = c.rarity)
+        ON CONFLICT (name) DO NOTHING;
+        INSERT INTO card_types (name)
+        SELECT DISTINCT c.card_type FROM cards c
+        WHERE c.card_type IS NOT NULL AND NOT EXISTS (SELECT 1 FROM card_types t WHERE t.name = c.card_type)
+        ON CONFLICT (name) DO NOTHING;
+        UPDATE cards c SET set_name_id = s.id FROM card_set_names s
+        WHERE s.name = c.set_name AND c.set_name_id IS DISTINCT FROM s.id;
+        UPDATE cards c SET rarity_id = r.id FROM card_rarities r
+        WHERE r.name = c.rarity AND c.rarity_id IS DISTINCT FROM r.id;
+        UPDATE cards c SET card_type_id = t.id FROM card_types t
+        WHERE t.name = c.card_type AND c.card_type_id IS DISTINCT FROM t.id;
+
+        DROP VIEW IF EXISTS v_user_collection_summary, v_card_rarity_distribution, v_top_valuable_cards;
+        ALTER TABLE cards DROP COLUMN set_name, DROP COLUMN set_series, DROP COLUMN rarity, DROP COLUMN card_type;
+    END IF;
+END $$;
+
+-- One-time backfill of the collection summaries, for users who have no summary row yet (every user on the first
+-- run, only new ones afterwards); the triggers keep them current from then on. The SHARE locks hold off
+-- collection writes until it commits, so none is lost or counted twice.
+BEGIN;
+LOCK TABLE user_cards, wishlist, user_achievements IN SHARE MODE;
+CREATE TEMP TABLE missing_summaries ON COMMIT DROP AS
+SELECT u.id AS user_id FROM users u
+WHERE NOT EXISTS (SELECT 1 FROM user_collection_summaries s WHERE s.user_id = u.id);
+INSERT INTO user_collection_sets (user_id, set_name_id, card_count)
+SELECT uc.user_id, c.set_name_id, COUNT(*)
+FROM missing_summaries m JOIN user_cards uc ON uc.user_id = m.user_id JOIN cards c ON c.id = uc.card_id
+WHERE c.set_name_id IS NOT NULL
+GROUP BY uc.user_id, c.set_name_id
+ON CONFLICT (user_id, set_name_id) DO NOTHING;
+INSERT INTO user_collection_summaries (user_id, unique_cards, total_cards, total_value, total_sets,
+                                       achievement_count, total_points, wishlist_count)
+SELECT m.user_id, COALESCE(uc.unique_cards, 0), COALESCE(uc.total_cards, 0), COALESCE(uc.total_value, 0),
+       COALESCE(cs.total_sets, 0), COALESCE(ua.achievement_count, 0), COALESCE(ua.total_points, 0),
+       COALESCE(w.wishlist_count, 0)
+FROM missing_summaries m
+LEFT JOIN (SELECT uc.user_id, COUNT(*) AS unique_cards, SUM(uc.quantity) AS total_cards,
+                  SUM(uc.total_value) AS total_value
+           FROM user_cards uc JOIN missing_summaries m ON m.user_id = uc.user_id
+           GROUP BY uc.user_id) uc ON uc.user_id = m.user_id
+LEFT JOIN (SELECT s.user_id, COUNT(*) AS total_sets
+           FROM user_collection_sets s JOIN missing_summaries m ON m.user_id = s.user_id
+           GROUP BY s.user_id) cs ON cs.user_id = m.user_id
+LEFT JOIN (SELECT ua.user_id, COUNT(*) AS achievement_count, SUM(a.points) AS total_points
+           FROM user_achievements ua JOIN missing_summaries m ON m.user_id = ua.user_id
+           JOIN achievements a ON a.id = ua.achievement_id
+           GROUP BY ua.user_id) ua ON ua.user_id = m.user_id
+LEFT JOIN (SELECT w.user_id, COUNT(*) AS wishlist_count
+           FROM wishlist w JOIN missing_summaries m ON m.user_id = w.user_id
+           GROUP BY w.user_id) w ON w.user_id = m.user_id
+ON CONFLICT (user_id) DO NOTHING;
+COMMIT;
+
+-- Replaced by the indexes on the lookup keys
+DROP INDEX IF EXISTS idx_cards_set_name;
+DROP INDEX IF EXISTS idx_cards_rarity;
+DROP INDEX IF EXISTS idx_cards_card_type;
+DROP INDEX IF EXISTS idx_cards_set_name_number;
+DROP INDEX IF EXISTS idx_cards_rarity_name_id;
+-- The incremental sync tracks prices per set now
+DROP INDEX IF EXISTS idx_cards_price_updated_at;
+
 -- ========================================
 -- Indexes for Performance
 -- ========================================
 CREATE INDEX IF NOT EXISTS idx_user_cards_user_id ON user_cards(user_id);
 CREATE INDEX IF NOT EXISTS idx_user_cards_card_id ON user_cards(card_id);
+-- Keyset pagination of the collection listings and the top-value cards (read backwards); the name and set
+-- sorts order by card columns instead
+CREATE INDEX IF NOT EXISTS idx_user_cards_user_value ON user_cards(user_id, total_value, id);
+CREATE INDEX IF NOT EXISTS idx_user_cards_user_acquired
+    ON user_cards(user_id, COALESCE(acquisition_date, DATE '-infinity'), id);
+CREATE INDEX IF NOT EXISTS idx_user_cards_user_created
+    ON user_cards(user_id, COALESCE(created_at, TIMESTAMP '-infinity'), id);
 CREATE INDEX IF NOT EXISTS idx_cards_name ON cards(name);
-CREATE INDEX IF NOT EXISTS idx_cards_set_name ON cards(set_name);
-CREATE INDEX IF NOT EXISTS idx_cards_rarity ON cards(rarity);
 CREATE INDEX IF NOT EXISTS idx_cards_api_id ON cards(api_id);
+CREATE INDEX IF NOT EXISTS idx_cards_set_id ON cards(set_id);
+CREATE INDEX IF NOT EXISTS idx_cards_card_type_id ON cards(card_type_id);
+-- Keyset pagination of the card listings
+CREATE INDEX IF NOT EXISTS idx_cards_name_id ON cards(name, id);
+CREATE INDEX IF NOT EXISTS idx_cards_set_name_id_number ON cards(set_name_id, COALESCE(card_number, ''), id);
+CREATE INDEX IF NOT EXISTS idx_cards_rarity_id_name ON cards(rarity_id, name, id);
+-- Trigram indexes serve the ILIKE '%term%' predicates of the card search; set names and rarities are
+-- matched in their lookup tables
+CREATE INDEX IF NOT EXISTS idx_cards_name_trgm ON cards USING GIN (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_card_set_names_name_trgm ON card_set_names USING GIN (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_card_rarities_name_trgm ON card_rarities USING GIN (name gin_trgm_ops);
 CREATE INDEX IF NOT EXISTS idx_user_achievements_user_id ON user_achievements(user_id);
 CREATE INDEX IF NOT EXISTS idx_wishlist_user_id ON wishlist(user_id);
 
@@ -165,7 +368,7 @@ SELECT
     COUNT(DISTINCT uc.card_id) AS unique_cards,
     SUM(uc.quantity) AS total_cards,
     SUM(uc.current_value * uc.quantity) AS total_value,
-    COUNT(DISTINCT c.set_name) AS total_sets
+    COUNT(DISTINCT c.set_name_id) AS total_sets
 FROM users u
 LEFT JOIN user_cards uc ON u.id = uc.user_id
 LEFT JOIN cards c ON uc.card_id = c.id
@@ -175,27 +378,30 @@ GROUP BY u.id, u.username;
 CREATE OR REPLACE VIEW v_card_rarity_distribution AS
 SELECT
     uc.user_id,
-    c.rarity,
+    r.name AS rarity,
     COUNT(*) AS card_count,
     SUM(uc.quantity) AS total_quantity,
     SUM(uc.current_value * uc.quantity) AS total_value
 FROM user_cards uc
 JOIN cards c ON uc.card_id = c.id
-GROUP BY uc.user_id, c.rarity;
+LEFT JOIN card_rarities r ON c.rarity_id = r.id
+GROUP BY uc.user_id, r.name;
 
 -- View: Most valuable cards
 CREATE OR REPLACE VIEW v_top_valuable_cards AS
 SELECT
     uc.user_id,
     c.name,
-    c.set_name,
-    c.rarity,
+    s.name AS set_name,
+    r.name AS rarity,
     uc.quantity,
     uc.current_value,
     (uc.current_value * uc.quantity) AS total_value,
     cc.name AS condition
 FROM user_cards uc
 JOIN cards c ON uc.card_id = c.id
+LEFT JOIN card_set_names s ON c.set_name_id = s.id
+LEFT JOIN card_rarities r ON c.rarity_id = r.id
 LEFT JOIN card_conditions cc ON uc.condition_id = cc.id
 ORDER BY total_value DESC;
 
@@ -222,6 +428,201 @@ CREATE TRIGGER update_cards_updated_at BEFORE UPDATE ON cards
 CREATE TRIGGER update_user_cards_updated_at BEFORE UPDATE ON user_cards
     FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 
+-- Function: Add to a user's collection summary. The row is only created for a user that still
+-- exists, so the cascades of a user delete do not recreate the summary they just removed.
+CREATE OR REPLACE FUNCTION add_user_collection_summary(
+    summary_user_id UUID, unique_cards_delta BIGINT, total_cards_delta BIGINT, total_value_delta NUMERIC,
+    total_sets_delta BIGINT, achievement_count_delta BIGINT, total_points_delta BIGINT, wishlist_count_delta BIGINT)
+RETURNS VOID AS $$
+BEGIN
+    UPDATE user_collection_summaries SET
+        unique_cards = unique_cards + unique_cards_delta,
+        total_cards = total_cards + total_cards_delta,
+        total_value = total_value + total_value_delta,
+        total_sets = total_sets + total_sets_delta,
+        achievement_count = achievement_count + achievement_count_delta,
+        total_points = total_points + total_points_delta,
+        wishlist_count = wishlist_count + wishlist_count_delta,
+        updated_at = CURRENT_TIMESTAMP
+    WHERE user_id = summary_user_id;
+    IF NOT FOUND AND EXISTS (SELECT 1 FROM users WHERE id = summary_user_id) THEN
+        INSERT INTO user_collection_summaries (user_id, unique_cards, total_cards, total_value, total_sets,
+                                               achievement_count, total_points, wishlist_count)
+        VALUES (summary_user_id, unique_cards_delta, total_cards_delta, total_value_delta, total_sets_delta,
+                achievement_count_delta, total_points_delta, wishlist_count_delta)
+        ON CONFLICT (user_id) DO UPDATE SET
+            unique_cards = user_collection_summaries.unique_cards + EXCLUDED.unique_cards,
+            total_cards = user_collection_summaries.total_cards + EXCLUDED.total_cards,
+            total_value = user_collection_summaries.total_value + EXCLUDED.total_value,
+            total_sets = user_collection_summaries.total_sets + EXCLUDED.total_sets,
+            achievement_count = user_collection_summaries.achievement_count + EXCLUDED.achievement_count,
+            total_points = user_collection_summaries.total_points + EXCLUDED.total_points,
+            wishlist_count = user_collection_summaries.wishlist_count + EXCLUDED.wishlist_count,
+            updated_at = CURRENT_TIMESTAMP;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Function: Count collection rows into or out of one of a user's sets; returns the change in the
+-- number of sets the user has cards from (1 for a new set, -1 for a set left empty, else 0)
+CREATE OR REPLACE FUNCTION add_user_collection_set(set_user_id UUID, set_key SMALLINT, row_delta BIGINT)
+RETURNS BIGINT AS $$
+DECLARE
+    remaining BIGINT;
+BEGIN
+    IF set_key IS NULL OR row_delta = 0 THEN
+        RETURN 0;
+    END IF;
+    IF row_delta > 0 THEN
+        INSERT INTO user_collection_sets (user_id, set_name_id, card_count) VALUES (set_user_id, set_key, row_delta)
+        ON CONFLICT (user_id, set_name_id) DO UPDATE SET card_count = user_collection_sets.card_count + EXCLUDED.card_count
+        RETURNING card_count INTO remaining;
+        RETURN CASE WHEN remaining = row_delta THEN 1 ELSE 0 END;
+    END IF;
+    UPDATE user_collection_sets SET card_count = card_count + row_delta
+    WHERE user_id = set_user_id AND set_name_id = set_key
+    RETURNING card_count INTO remaining;
+    IF remaining IS NOT NULL AND remaining <= 0 THEN
+        DELETE FROM user_collection_sets WHERE user_id = set_user_id AND set_name_id = set_key;
+        RETURN -1;
+    END IF;
+    RETURN 0;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Function: Keep the collection summary in step with user_cards
+CREATE OR REPLACE FUNCTION track_user_card_summary()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' AND OLD.user_id = NEW.user_id AND OLD.card_id = NEW.card_id THEN
+        PERFORM add_user_collection_summary(NEW.user_id, 0, COALESCE(NEW.quantity, 0) - COALESCE(OLD.quantity, 0),
+                                            NEW.total_value - OLD.total_value, 0, 0, 0, 0);
+        RETURN NULL;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM add_user_collection_summary(OLD.user_id, -1, -COALESCE(OLD.quantity, 0), -OLD.total_value,
+            add_user_collection_set(OLD.user_id, (SELECT set_name_id FROM cards WHERE id = OLD.card_id), -1),
+            0, 0, 0);
+    END IF;
+    IF TG_OP IN ('UPDATE', 'INSERT') THEN
+        PERFORM add_user_collection_summary(NEW.user_id, 1, COALESCE(NEW.quantity, 0), NEW.total_value,
+            add_user_collection_set(NEW.user_id, (SELECT set_name_id FROM cards WHERE id = NEW.card_id), 1),
+            0, 0, 0);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS track_user_cards_summary ON user_cards;
+CREATE TRIGGER track_user_cards_summary AFTER INSERT OR DELETE ON user_cards
+    FOR EACH ROW EXECUTE FUNCTION track_user_card_summary();
+
+-- Entity saves rewrite every column, so edits that leave the totals alone are filtered out here
+DROP TRIGGER IF EXISTS track_user_cards_update_summary ON user_cards;
+CREATE TRIGGER track_user_cards_update_summary AFTER UPDATE ON user_cards
+    FOR EACH ROW WHEN (OLD.user_id IS DISTINCT FROM NEW.user_id OR OLD.card_id IS DISTINCT FROM NEW.card_id
+                       OR OLD.quantity IS DISTINCT FROM NEW.quantity OR OLD.total_value IS DISTINCT FROM NEW.total_value)
+    EXECUTE FUNCTION track_user_card_summary();
+
+-- Function: Move the set counts of a card's holders when the card changes set or is deleted.
+-- On delete this runs before the user_cards cascade, which then finds no set to count out.
+CREATE OR REPLACE FUNCTION track_card_set_summary()
+RETURNS TRIGGER AS $$
+DECLARE
+    holder RECORD;
+    new_set_key SMALLINT;
+BEGIN
+    IF TG_OP = 'UPDATE' THEN
+        new_set_key := NEW.set_name_id;
+    END IF;
+    FOR holder IN SELECT user_id, COUNT(*) AS row_count FROM user_cards WHERE card_id = OLD.id GROUP BY user_id LOOP
+        PERFORM add_user_collection_summary(holder.user_id, 0, 0, 0,
+            add_user_collection_set(holder.user_id, OLD.set_name_id, -holder.row_count)
+                + add_user_collection_set(holder.user_id, new_set_key, holder.row_count),
+            0, 0, 0);
+    END LOOP;
+    IF TG_OP = 'DELETE' THEN
+        RETURN OLD;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS track_cards_set_summary ON cards;
+CREATE TRIGGER track_cards_set_summary AFTER UPDATE ON cards
+    FOR EACH ROW WHEN (OLD.set_name_id IS DISTINCT FROM NEW.set_name_id)
+    EXECUTE FUNCTION track_card_set_summary();
+
+DROP TRIGGER IF EXISTS track_cards_delete_summary ON cards;
+CREATE TRIGGER track_cards_delete_summary BEFORE DELETE ON cards
+    FOR EACH ROW EXECUTE FUNCTION track_card_set_summary();
+
+-- Function: Keep the achievement count and points of the collection summary in step with user_achievements
+CREATE OR REPLACE FUNCTION track_user_achievement_summary()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM add_user_collection_summary(NEW.user_id, 0, 0, 0, 0, 1,
+            COALESCE((SELECT points FROM achievements WHERE id = NEW.achievement_id), 0), 0);
+    ELSE
+        PERFORM add_user_collection_summary(OLD.user_id, 0, 0, 0, 0, -1,
+            -COALESCE((SELECT points FROM achievements WHERE id = OLD.achievement_id), 0), 0);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS track_user_achievements_summary ON user_achievements;
+CREATE TRIGGER track_user_achievements_summary AFTER INSERT OR DELETE ON user_achievements
+    FOR EACH ROW EXECUTE FUNCTION track_user_achievement_summary();
+
+-- Function: Re-point the holders of an achievement whose points change or which is deleted.
+-- On delete this runs before the user_achievements cascade, which then finds no points to take off.
+CREATE OR REPLACE FUNCTION track_achievement_points_summary()
+RETURNS TRIGGER AS $$
+DECLARE
+    holder RECORD;
+    points_delta BIGINT := -COALESCE(OLD.points, 0);
+BEGIN
+    IF TG_OP = 'UPDATE' THEN
+        points_delta := COALESCE(NEW.points, 0) - COALESCE(OLD.points, 0);
+    END IF;
+    FOR holder IN SELECT user_id FROM user_achievements WHERE achievement_id = OLD.id LOOP
+        PERFORM add_user_collection_summary(holder.user_id, 0, 0, 0, 0, 0, points_delta, 0);
+    END LOOP;
+    IF TG_OP = 'DELETE' THEN
+        RETURN OLD;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS track_achievements_points_summary ON achievements;
+CREATE TRIGGER track_achievements_points_summary AFTER UPDATE OF points ON achievements
+    FOR EACH ROW WHEN (OLD.points IS DISTINCT FROM NEW.points)
+    EXECUTE FUNCTION track_achievement_points_summary();
+
+DROP TRIGGER IF EXISTS track_achievements_delete_summary ON achievements;
+CREATE TRIGGER track_achievements_delete_summary BEFORE DELETE ON achievements
+    FOR EACH ROW EXECUTE FUNCTION track_achievement_points_summary();
+
+-- Function: Keep the wishlist count of the collection summary in step with wishlist
+CREATE OR REPLACE FUNCTION track_wishlist_summary()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM add_user_collection_summary(NEW.user_id, 0, 0, 0, 0, 0, 0, 1);
+    ELSE
+        PERFORM add_user_collection_summary(OLD.user_id, 0, 0, 0, 0, 0, 0, -1);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS track_wishlist_summary ON wishlist;
+CREATE TRIGGER track_wishlist_summary AFTER INSERT OR DELETE ON wishlist
+    FOR EACH ROW EXECUTE FUNCTION track_wishlist_summary();
+
 -- ========================================
 -- Schema Created Successfully
 -- ========================================
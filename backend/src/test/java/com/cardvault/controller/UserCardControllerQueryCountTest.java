@@ -0,0 +1,248 @@
+package com.cardvault.controller;
+
+import com.cardvault.util.JwtUtil;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements behind each collection read endpoint, so that a per-row lookup (N+1) shows up
+ * as a failure. Every endpoint must read the user's rows in one statement, plus at most one batched card
+ * lookup for cards the in-memory catalog does not hold yet, whatever the number of rows.
+ * <p>
+ * The queries rely on PostgreSQL (lookup-key subqueries, triggers, -infinity dates), so this runs against
+ * a real database: set CARDVAULT_TEST_DATABASE_URL (and optionally CARDVAULT_TEST_DATABASE_USERNAME and
+ * CARDVAULT_TEST_DATABASE_PASSWORD). An empty database gets schema.sql applied first; the test's own rows
+ * are removed afterwards.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "CARDVAULT_TEST_DATABASE_URL", matches = ".+")
+class UserCardControllerQueryCountTest {
+
+    private static final int ROWS = 25;
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private ThreadPoolTaskExecutor taskExecutor;
+
+    private final String suffix = UUID.randomUUID().toString().substring(0, 8);
+    private final String username = "querycount_" + suffix;
+    private final String setName = "Query Count Set " + suffix;
+    private final String rarity = "Query Count Rare " + suffix;
+    private UUID userId;
+    private String token;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("CARDVAULT_TEST_DATABASE_URL"));
+        registry.add("spring.datasource.username",
+                () -> System.getenv().getOrDefault("CARDVAULT_TEST_DATABASE_USERNAME", "postgres"));
+        registry.add("spring.datasource.password",
+                () -> System.getenv().getOrDefault("CARDVAULT_TEST_DATABASE_PASSWORD", "postgres"));
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @TestConfiguration
+    static class StatementCounting {
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return ProxyDataSourceBuilder.create(dataSource).listener(new QueryExecutionListener() {
+                        @Override
+                        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queries) {
+                        }
+
+                        @Override
+                        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queries) {
+                            // Scheduled jobs run on their own threads and are not part of a request
+                            if (!Thread.currentThread().getName().startsWith("scheduling")) {
+                                queries.forEach(query -> statements.add(query.getQuery().toLowerCase(Locale.ROOT)));
+                            }
+                        }
+                    }).build();
+                }
+            };
+        }
+    }
+
+    @BeforeAll
+    void createCollection() throws Exception {
+        // schema.sql recreates its triggers unconditionally, so it only runs against an empty database
+        if (jdbcTemplate.queryForObject("SELECT to_regclass('users') IS NULL", Boolean.class)) {
+            jdbcTemplate.execute(new String(new ClassPathResource("schema.sql").getInputStream().readAllBytes(),
+                    StandardCharsets.UTF_8));
+        }
+
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (username, email, password_hash) VALUES (?, ?, 'x') RETURNING id",
+                UUID.class, username, username + "@example.com");
+        Short setNameId = jdbcTemplate.queryForObject(
+                "INSERT INTO card_set_names (name) VALUES (?) RETURNING id", Short.class, setName);
+        Short rarityId = jdbcTemplate.queryForObject(
+                "INSERT INTO card_rarities (name) VALUES (?) RETURNING id", Short.class, rarity);
+        for (int i = 0; i < ROWS; i++) {
+            UUID cardId = jdbcTemplate.queryForObject(
+                    "INSERT INTO cards (api_id, name, set_name_id, card_number, rarity_id, market_price) " +
+                    "VALUES (?, ?, ?, ?, ?, ?) RETURNING id",
+                    UUID.class, "qc-" + suffix + "-" + i, "Query Count Card " + i, setNameId, String.valueOf(i),
+                    rarityId, i + 1);
+            jdbcTemplate.update("INSERT INTO user_cards (user_id, card_id, quantity, current_value) VALUES (?, ?, 1, ?)",
+                    userId, cardId, i + 1);
+        }
+        token = jwtUtil.generateToken(username);
+    }
+
+    @AfterAll
+    void deleteCollection() {
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        jdbcTemplate.update("DELETE FROM cards WHERE api_id LIKE ?", "qc-" + suffix + "-%");
+        jdbcTemplate.update("DELETE FROM card_set_names WHERE name = ?", setName);
+        jdbcTemplate.update("DELETE FROM card_rarities WHERE name = ?", rarity);
+    }
+
+    @Test
+    void collectionStreamReadsRowsInOneStatement() throws Exception {
+        List<String> sql = count(() -> {
+            MvcResult started = mockMvc.perform(get("/api/user-cards/user/{userId}", userId).header("Authorization", bearer()))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(ROWS));
+        });
+        assertCollectionReads(sql);
+    }
+
+    @Test
+    void collectionPageReadsRowsInOneStatement() throws Exception {
+        List<String> sql = count(() -> mockMvc.perform(get("/api/user-cards/user/{userId}/page", userId)
+                        .param("size", String.valueOf(ROWS)).header("Authorization", bearer()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(ROWS)));
+        assertCollectionReads(sql);
+    }
+
+    @Test
+    void topCardsReadRowsInOneStatement() throws Exception {
+        List<String> sql = count(() -> mockMvc.perform(get("/api/user-cards/user/{userId}/top-cards", userId)
+                        .param("limit", String.valueOf(ROWS)).header("Authorization", bearer()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(ROWS))
+                .andExpect(jsonPath("$[0].card.name").value("Query Count Card " + (ROWS - 1))));
+        assertCollectionReads(sql);
+    }
+
+    @Test
+    void rarityFilterReadsRowsInOneStatementOnTheLookupKey() throws Exception {
+        List<String> sql = count(() -> mockMvc.perform(get("/api/user-cards/user/{userId}/rarity/{rarity}", userId, rarity)
+                        .header("Authorization", bearer()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(ROWS)));
+        assertCollectionReads(sql);
+        assertThat(collectionStatements(sql)).singleElement().asString().contains("c.rarity_id = (select");
+    }
+
+    @Test
+    void setFilterReadsRowsInOneStatementOnTheLookupKey() throws Exception {
+        List<String> sql = count(() -> mockMvc.perform(get("/api/user-cards/user/{userId}/set/{setName}", userId, setName)
+                        .header("Authorization", bearer()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(ROWS)));
+        assertCollectionReads(sql);
+        assertThat(collectionStatements(sql)).singleElement().asString().contains("c.set_name_id = (select");
+    }
+
+    private interface Request {
+        void perform() throws Exception;
+    }
+
+    /**
+     * The statements a request ran, excluding the token's user lookup. Waits for background index builds first
+     * so their queries are not counted.
+     */
+    private List<String> count(Request request) throws Exception {
+        awaitIdle();
+        statements.clear();
+        request.perform();
+        awaitIdle();
+        List<String> sql = new ArrayList<>(statements);
+        sql.removeIf(statement -> statement.contains("from users"));
+        return sql;
+    }
+
+    private void assertCollectionReads(List<String> sql) {
+        assertThat(collectionStatements(sql)).hasSize(1);
+        assertThat(sql).filteredOn(statement -> !statement.contains("user_cards"))
+                .as("statements besides the collection query: at most one batched card lookup")
+                .hasSizeLessThanOrEqualTo(1)
+                .allMatch(statement -> statement.contains("from cards"));
+    }
+
+    private static List<String> collectionStatements(List<String> sql) {
+        return sql.stream().filter(statement -> statement.contains("user_cards")).toList();
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        for (int i = 0; i < 600 && (taskExecutor.getActiveCount() > 0
+                || !taskExecutor.getThreadPoolExecutor().getQueue().isEmpty()); i++) {
+            Thread.sleep(50);
+        }
+    }
+
+    private String bearer() {
+        return "Bearer " + token;
+    }
+}
@@ -0,0 +1,74 @@
+package com.cardvault.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the catalog ingest path before and after the streaming decoder on the
+ * {@link CatalogPageDecoderTest} fixture page. Reports bytes allocated and time per page.
+ * <p>
+ * Takes around 20 seconds and measures allocation, which is noisy on shared machines, so it is left out
+ * of the default build. Run it with {@code mvn test -Dtest=CatalogPageDecoderBenchmarkTest -Dcardvault.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "cardvault.benchmark", matches = "true")
+class CatalogPageDecoderBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogPageDecoderBenchmarkTest.class);
+    private static final int WARMUP_ITERATIONS = 100;
+    private static final int MEASURED_ITERATIONS = 100;
+
+    @BeforeAll
+    static void loadFixture() throws IOException {
+        CatalogPageDecoderTest.loadFixture();
+    }
+
+    @Test
+    void decoderAllocatesLessThanBinding() throws IOException {
+        Measurement binding = measure(() -> CatalogPageDecoderTest.bind().cards().size());
+        Measurement streaming = measure(() -> CatalogPageDecoderTest.decoder
+                .decode(new ByteArrayInputStream(CatalogPageDecoderTest.page)).cards().size());
+
+        logger.info("Catalog page ({} KB, 250 cards), per page over {} iterations:",
+                CatalogPageDecoderTest.page.length / 1024, MEASURED_ITERATIONS);
+        logger.info("  PokemonCardResponse binding: {} KB allocated, {} us", binding.bytes() / 1024, binding.micros());
+        logger.info("  CatalogPageDecoder:          {} KB allocated, {} us", streaming.bytes() / 1024, streaming.micros());
+
+        assertThat(streaming.bytes()).isLessThan(binding.bytes());
+    }
+
+    private interface PageRun {
+        int run() throws IOException;
+    }
+
+    private record Measurement(long bytes, long micros) {
+    }
+
+    private static Measurement measure(PageRun run) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += run.run();
+        }
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += run.run();
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertThat(sink).isEqualTo((WARMUP_ITERATIONS + MEASURED_ITERATIONS) * 250);
+        return new Measurement(allocated / MEASURED_ITERATIONS, elapsed / MEASURED_ITERATIONS / 1000);
+    }
+}
@@ -0,0 +1,85 @@
+package com.cardvault.service;
+
+import com.cardvault.dto.PokemonCardDto;
+import com.cardvault.dto.PokemonCardResponse;
+import com.cardvault.model.Card;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the streaming CatalogPageDecoder against the ingest path it replaced on one pageSize=250 card
+ * page: binding PokemonCardResponse, mapping each card and serializing it back for card_details.
+ * <p>
+ * The fixture is a synthetic page in the Pokemon TCG API's response shape (pretty printed, with attacks,
+ * abilities, legalities and both price blocks), generated because the live API is not reachable from CI.
+ */
+class CatalogPageDecoderTest {
+
+    static final ObjectMapper objectMapper = new ObjectMapper();
+    static byte[] page;
+    static CatalogPageDecoder decoder;
+    private static CardCatalogService cardCatalogService;
+
+    @BeforeAll
+    static void loadFixture() throws IOException {
+        try (InputStream in = new GZIPInputStream(
+                CatalogPageDecoderTest.class.getResourceAsStream("/catalog/cards-page-250.json.gz"))) {
+            page = in.readAllBytes();
+        }
+        decoder = new CatalogPageDecoder(objectMapper);
+        // Only toCard is used, which touches none of the collaborators
+        cardCatalogService = new CardCatalogService(null, null, null, null, null, null, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void decoderProducesTheSameRowsAsBinding() throws IOException {
+        BoundPage bound = bind();
+        CatalogPageDecoder.CatalogPage decoded = decoder.decode(new ByteArrayInputStream(page));
+
+        assertThat(decoded.count()).isEqualTo(250);
+        assertThat(decoded.totalCount()).isEqualTo(bound.totalCount());
+        assertThat(decoded.cards()).usingRecursiveFieldByFieldElementComparator().isEqualTo(bound.cards());
+        assertThat(decoded.detailJsonByApiId().keySet()).isEqualTo(bound.details().keySet());
+        // The verbatim copy keeps fields the DTO does not model, so compare on the DTO's fields
+        for (Map.Entry<String, String> entry : decoded.detailJsonByApiId().entrySet()) {
+            PokemonCardDto copied = objectMapper.readValue(entry.getValue(), PokemonCardDto.class);
+            JsonNode expected = objectMapper.readTree(bound.details().get(entry.getKey()));
+            JsonNode actual = objectMapper.valueToTree(copied);
+            assertThat(actual).isEqualTo(expected);
+        }
+    }
+
+    record BoundPage(List<Card> cards, Map<String, String> details, int totalCount) {
+    }
+
+    /**
+     * The ingest path before the streaming decoder: bind, map, and re-serialize each card.
+     */
+    static BoundPage bind() throws IOException {
+        PokemonCardResponse response = objectMapper.readValue(new ByteArrayInputStream(page), PokemonCardResponse.class);
+        List<Card> cards = new ArrayList<>(response.getData().size());
+        Map<String, String> details = new LinkedHashMap<>();
+        for (PokemonCardDto dto : response.getData()) {
+            if (dto.getId() == null || dto.getName() == null) {
+                continue;
+            }
+            cards.add(cardCatalogService.toCard(dto));
+            details.put(dto.getId(), objectMapper.writeValueAsString(dto));
+        }
+        return new BoundPage(cards, details, response.getTotalCount());
+    }
+}